@@ -0,0 +1,441 @@
+import java.util.*;
+import java.util.function.IntFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Измеряемые операции для бенчмарков JMH.
+ *
+ * JMH не допускает классы бенчмарков в пакете по умолчанию, а из именованного пакета классы
+ * проекта недоступны. Поэтому данные готовятся здесь, а бенчмарки (пакет benchmarks) получают
+ * операции через функциональные интерфейсы JDK: аргумент операции - номер запроса
+ * из [0, QUERY_COUNT), сами аргументы заранее сгенерированы с фиксированным seed.
+ */
+public final class LoudsBenchmarkTargets {
+
+    public static final int QUERY_COUNT = 1 << 12;                  // Размер массивов запросов (степень двойки)
+    static final int PAGE_SIZE = 10;                                // Слов на странице в бенчмарках постраничного вывода
+    static final int BATCH_SIZE = 1 << 16;                          // Ключей в пакете бенчмарка searchAll
+    static final int TOP_K = 10;                                    // Слов в ответе бенчмарка topK
+
+    private LoudsBenchmarkTargets() {}
+
+    /**
+     * rank1, select1, select0 битового вектора и firstChild, parent, degree дерева.
+     * rankTable - rank1 по полной таблице int[] с числом единиц перед каждой позицией
+     * (прежняя схема, 32 бита на бит вектора) на тех же позициях, что и rank1.
+     */
+    public static Map<String, IntUnaryOperator> navigation(int dictionarySize, String alphabet) {
+        TrieLouds louds = TrieLouds.buildFromWordList(randomWords(dictionarySize, alphabet, 1));
+        SuccinctBitVector bits = louds.bits;
+        int[] rankTable = new int[bits.length() + 1];
+        for (int j = 0; j < bits.length(); j++) {
+            rankTable[j + 1] = rankTable[j] + (bits.get(j) ? 1 : 0);
+        }
+        int[] positions = randomInts(bits.length(), 2);
+        int[] ones = randomInts(bits.countOnes(), 3);
+        int[] zeros = randomInts(bits.countZeros(), 4);
+        int[] nodes = randomInts(louds.getNodeCount(), 5);
+
+        Map<String, IntUnaryOperator> operations = new HashMap<>();
+        operations.put("rank1", i -> bits.rank1(positions[i]));
+        operations.put("rankTable", i -> rankTable[positions[i]]);
+        operations.put("select1", i -> bits.select1(ones[i]));
+        operations.put("select0", i -> bits.select0(zeros[i]));
+        operations.put("firstChild", i -> louds.firstChild(nodes[i]));
+        operations.put("parent", i -> louds.parent(nodes[i]));
+        operations.put("degree", i -> louds.degree(nodes[i]));
+        return operations;
+    }
+
+    /**
+     * Поиск ребёнка по символу: через childRange (findChildByChar) и прежним способом
+     * через firstChild и degree (findChildByCharSelects, пять операций select/rank на шаг).
+     * Запросы - внутренние узлы и символ одного из их детей.
+     */
+    public static Map<String, IntUnaryOperator> childLookup(int dictionarySize, String alphabet) {
+        TrieLouds louds = TrieLouds.buildFromWordList(randomWords(dictionarySize, alphabet, 1));
+        Random random = new Random(6);
+        int[] nodes = new int[QUERY_COUNT];
+        char[] chars = new char[QUERY_COUNT];
+        for (int i = 0; i < QUERY_COUNT; ) {
+            int node = random.nextInt(louds.getNodeCount());
+            long range = louds.childRange(node);
+            int degree = BasicLouds.rangeEnd(range) - BasicLouds.rangeFirst(range);
+            if (degree > 0) {
+                nodes[i] = node;
+                chars[i] = louds.labels.get(BasicLouds.rangeFirst(range) + random.nextInt(degree));
+                i++;
+            }
+        }
+
+        Map<String, IntUnaryOperator> operations = new HashMap<>();
+        operations.put("findChildByChar", i -> louds.findChildByChar(nodes[i], chars[i]));
+        operations.put("findChildByCharSelects", i -> findChildBySelects(louds, nodes[i], chars[i]));
+        return operations;
+    }
+
+    /**
+     * Поиск ребёнка в том виде, как он был до childRange: firstChild, затем degree,
+     * который снова вызывает firstChild дважды и lastChild
+     */
+    private static int findChildBySelects(TrieLouds louds, int node, char ch) {
+        int firstChild = firstChildBySelect(louds, node);
+        if (firstChild == -1) {
+            return -1;
+        }
+        int lastChild = louds.rank1(louds.select0(node + 2) - 2);
+        int degree = firstChildBySelect(louds, node) == -1 ? 0 : lastChild - firstChildBySelect(louds, node) + 1;
+
+        int left = 0;
+        int right = degree - 1;
+        while (left <= right) {
+            int mid = (left + right) >>> 1;
+            char childChar = louds.labels.get(firstChild + mid);
+            if (childChar == ch) {
+                return firstChild + mid;
+            } else if (childChar < ch) {
+                left = mid + 1;
+            } else {
+                right = mid - 1;
+            }
+        }
+        return -1;
+    }
+
+    private static int firstChildBySelect(TrieLouds louds, int node) {
+        int nodePos = louds.select0(node + 1);
+        return louds.bits.get(nodePos + 1) ? nodePos - node : -1;
+    }
+
+    /**
+     * search, startsWith, getWordsWithPrefix для TrieLouds (louds*) и Trie (trie*), search для HybridTrieLouds
+     * и PatriciaTrieLouds (patriciaSearch).
+     * Половина запросов поиска - слова словаря, префиксы - первые три символа запросов.
+     * Нечёткий поиск на расстоянии 1: fuzzySearch (loudsFuzzySearch) против расстояния Левенштейна
+     * до каждого слова заранее собранного списка (scanFuzzySearch).
+     * Шаблоны вида "c?t*" из первого и третьего символов запроса: getWordsMatching (loudsWordsMatching)
+     * против регулярного выражения для каждого слова списка (scanWordsMatching).
+     * Подсчёт слов с первым символом запроса: countWithPrefix (loudsCountWithPrefix) против размера
+     * списка getWordsWithPrefix (listCountWithPrefix); страница из 10 слов с середины результата:
+     * getWordsWithPrefix с offset (pageByOffset) против пропуска слов итератором (pageByIteratorSkip).
+     */
+    public static Map<String, IntFunction<Object>> queries(int dictionarySize, String alphabet) {
+        List<String> words = randomWords(dictionarySize, alphabet, 1);
+        TrieLouds louds = TrieLouds.buildFromWordList(words);
+        HybridTrieLouds hybrid = HybridTrieLouds.buildWithSizeRatio(louds, HybridTrieLouds.DEFAULT_SIZE_RATIO);
+        PatriciaTrieLouds patricia = PatriciaTrieLouds.buildFromWordList(words);
+        Trie trie = new Trie();
+        for (String word : words) {
+            trie.insert(word);
+        }
+
+        Random random = new Random(2);
+        String[] queries = new String[QUERY_COUNT];
+        String[] prefixes = new String[QUERY_COUNT];
+        String[] patterns = new String[QUERY_COUNT];
+        Pattern[] regexes = new Pattern[QUERY_COUNT];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            queries[i] = i % 2 == 0 ? words.get(random.nextInt(words.size())) : randomWord(random, alphabet);
+            prefixes[i] = queries[i].substring(0, 3);
+            patterns[i] = queries[i].charAt(0) + "?" + queries[i].charAt(2) + "*";
+            regexes[i] = Pattern.compile(queries[i].charAt(0) + "." + queries[i].charAt(2) + ".*");
+        }
+        String[] pagePrefixes = new String[QUERY_COUNT];
+        int[] offsets = new int[QUERY_COUNT];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            pagePrefixes[i] = queries[i].substring(0, 1);
+            offsets[i] = louds.countWithPrefix(pagePrefixes[i]) / 2;
+        }
+
+        List<String> allWords = louds.getAllWords();
+
+        Map<String, IntFunction<Object>> operations = new HashMap<>();
+        operations.put("loudsSearch", i -> louds.search(queries[i]));
+        operations.put("trieSearch", i -> trie.search(queries[i]));
+        operations.put("hybridSearch", i -> hybrid.search(queries[i]));
+        operations.put("patriciaSearch", i -> patricia.search(queries[i]));
+        operations.put("loudsStartsWith", i -> louds.startsWith(prefixes[i]));
+        operations.put("trieStartsWith", i -> trie.startsWith(prefixes[i]));
+        operations.put("loudsWordsWithPrefix", i -> louds.getWordsWithPrefix(prefixes[i]));
+        operations.put("trieWordsWithPrefix", i -> trie.getWordsWithPrefix(prefixes[i]));
+        operations.put("loudsFuzzySearch", i -> louds.fuzzySearch(queries[i], 1, Integer.MAX_VALUE));
+        operations.put("scanFuzzySearch", i -> {
+            List<String> found = new ArrayList<>();
+            for (String word : allWords) {
+                if (levenshtein(queries[i], word) <= 1) {
+                    found.add(word);
+                }
+            }
+            return found;
+        });
+        operations.put("loudsWordsMatching", i -> louds.getWordsMatching(patterns[i]));
+        operations.put("scanWordsMatching", i -> {
+            List<String> found = new ArrayList<>();
+            for (String word : allWords) {
+                if (regexes[i].matcher(word).matches()) {
+                    found.add(word);
+                }
+            }
+            return found;
+        });
+        operations.put("loudsCountWithPrefix", i -> louds.countWithPrefix(pagePrefixes[i]));
+        operations.put("listCountWithPrefix", i -> louds.getWordsWithPrefix(pagePrefixes[i]).size());
+        operations.put("pageByOffset", i -> louds.getWordsWithPrefix(pagePrefixes[i], offsets[i], PAGE_SIZE));
+        operations.put("pageByIteratorSkip", i -> {
+            Iterator<CharSequence> it = louds.wordIterator(pagePrefixes[i]);
+            for (int skipped = 0; skipped < offsets[i] && it.hasNext(); skipped++) {
+                it.next();
+            }
+            List<String> page = new ArrayList<>(PAGE_SIZE);
+            while (page.size() < PAGE_SIZE && it.hasNext()) {
+                page.add(it.next().toString());
+            }
+            return page;
+        });
+        return operations;
+    }
+
+    private static int levenshtein(String a, String b) {
+        int[] row = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            row[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            int diagonal = row[0];
+            row[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int above = row[j];
+                row[j] = Math.min(Math.min(row[j - 1] + 1, above + 1), diagonal + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1));
+                diagonal = above;
+            }
+        }
+        return row[b.length()];
+    }
+
+    /**
+     * Поиск пакета из BATCH_SIZE ключей: search для каждого ключа в цикле (searchLoop) против searchAll
+     * (searchAll). Пакет один и тот же, отсортирован; половина ключей - слова словаря.
+     */
+    public static Map<String, Supplier<Object>> batches(int dictionarySize, String alphabet) {
+        List<String> words = randomWords(dictionarySize, alphabet, 1);
+        TrieLouds louds = TrieLouds.buildFromWordList(words);
+        Random random = new Random(8);
+        String[] batch = new String[BATCH_SIZE];
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch[i] = i % 2 == 0 ? words.get(random.nextInt(words.size())) : randomWord(random, alphabet);
+        }
+        Arrays.sort(batch);
+
+        Map<String, Supplier<Object>> operations = new HashMap<>();
+        operations.put("searchLoop", () -> {
+            BitSet found = new BitSet(batch.length);
+            for (int i = 0; i < batch.length; i++) {
+                if (louds.search(batch[i])) {
+                    found.set(i);
+                }
+            }
+            return found;
+        });
+        operations.put("searchAll", () -> louds.searchAll(batch));
+        return operations;
+    }
+
+    /**
+     * Автодополнение по WeightedTrieLouds со случайными весами: все слова с префиксом (wordsWithPrefix)
+     * против TOP_K слов с наибольшим весом (topK). Префиксы - первые один-два символа случайного слова.
+     */
+    public static Map<String, IntFunction<Object>> autocomplete(int dictionarySize, String alphabet) {
+        Random random = new Random(10);
+        Map<String, Long> weighted = new HashMap<>();
+        for (String word : randomWords(dictionarySize, alphabet, 1)) {
+            weighted.put(word, (long) random.nextInt(1_000_000));
+        }
+        WeightedTrieLouds trie = WeightedTrieLouds.build(weighted);
+        String[] prefixes = new String[QUERY_COUNT];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            prefixes[i] = randomWord(random, alphabet).substring(0, 1 + random.nextInt(2));
+        }
+
+        Map<String, IntFunction<Object>> operations = new HashMap<>();
+        operations.put("wordsWithPrefix", i -> trie.getWordsWithPrefix(prefixes[i]));
+        operations.put("topK", i -> trie.topK(prefixes[i], TOP_K));
+        return operations;
+    }
+
+    /**
+     * Перечисление всех слов words("") с подсчётом слов, содержащих первые два символа алфавита:
+     * последовательный поток (sequentialWords) против параллельного (parallelWords)
+     */
+    public static Map<String, Supplier<Object>> wordStreams(int dictionarySize, String alphabet) {
+        TrieLouds louds = TrieLouds.buildFromWordList(randomWords(dictionarySize, alphabet, 1));
+        String pair = alphabet.substring(0, 2);
+
+        Map<String, Supplier<Object>> operations = new HashMap<>();
+        operations.put("sequentialWords", () -> louds.words("").filter(word -> word.contains(pair)).count());
+        operations.put("parallelWords", () -> louds.words("").parallel().filter(word -> word.contains(pair)).count());
+        return operations;
+    }
+
+    /**
+     * Построение TrieLouds (buildLouds) и Trie (buildTrie) из одного словаря
+     */
+    public static Map<String, Supplier<Object>> builds(int dictionarySize, String alphabet) {
+        List<String> words = randomWords(dictionarySize, alphabet, 1);
+
+        Map<String, Supplier<Object>> operations = new HashMap<>();
+        operations.put("buildLouds", () -> TrieLouds.buildFromWordList(words));
+        operations.put("buildTrie", () -> {
+            Trie trie = new Trie();
+            for (String word : words) {
+                trie.insert(word);
+            }
+            return trie;
+        });
+        return operations;
+    }
+
+    /**
+     * Построение TrieLouds из того же словаря, что и в builds, через ParallelTrieLoudsBuilder.buildFromWordList;
+     * аргумент операции buildParallel - число потоков
+     */
+    public static Map<String, IntFunction<Object>> parallelBuilds(int dictionarySize, String alphabet) {
+        List<String> words = randomWords(dictionarySize, alphabet, 1);
+
+        Map<String, IntFunction<Object>> operations = new HashMap<>();
+        operations.put("buildParallel", threads -> ParallelTrieLoudsBuilder.buildFromWordList(words, threads));
+        return operations;
+    }
+
+    /**
+     * Запись битовой строки LOUDS по степеням узлов: прежним способом - символы '1'/'0' в StringBuilder,
+     * затем копирование в BitSet (stringBuilderBitSet), и сразу в упакованный вектор (bitVectorBuilder).
+     * Степени генерируются как при обходе в ширину дерева из nodeCount узлов; alphabet не используется.
+     */
+    public static Map<String, Supplier<Object>> bitWriters(int nodeCount, String alphabet) {
+        int[] degrees = randomDegrees(nodeCount, 9);
+
+        Map<String, Supplier<Object>> operations = new HashMap<>();
+        operations.put("stringBuilderBitSet", () -> {
+            StringBuilder chars = new StringBuilder();
+            chars.append("10");
+            for (int degree : degrees) {
+                for (int j = 0; j < degree; j++) {
+                    chars.append('1');
+                }
+                chars.append('0');
+            }
+            BitSet bitSet = new BitSet(chars.length());
+            for (int j = 0; j < chars.length(); j++) {
+                if (chars.charAt(j) == '1') {
+                    bitSet.set(j);
+                }
+            }
+            return new SuccinctBitVector(bitSet.toLongArray(), chars.length());
+        });
+        operations.put("bitVectorBuilder", () -> {
+            BitVectorBuilder writer = new BitVectorBuilder();
+            writer.append(true).append(false);
+            for (int degree : degrees) {
+                writer.appendOnes(degree).append(false);
+            }
+            return writer.build();
+        });
+        return operations;
+    }
+
+    /**
+     * Поиск самого длинного префикса IPv4: LoudsRoutingTable (loudsRouting) против TreeMap по каждой
+     * длине префикса (treeMapRouting), где длины перебираются от 32 к 0 до первого совпадения.
+     * Префиксы: 60% длины 24, остальные - от 8 до 23; половина адресов попадает в известные префиксы.
+     * alphabet не используется: ключи двоичные.
+     */
+    public static Map<String, IntFunction<Object>> routing(int routeCount, String alphabet) {
+        Random random = new Random(7);
+        LoudsRoutingTable.Builder<Integer> builder = new LoudsRoutingTable.Builder<>();
+        List<TreeMap<Integer, Integer>> byLength = new ArrayList<>();
+        for (int length = 0; length <= Integer.SIZE; length++) {
+            byLength.add(new TreeMap<>());
+        }
+        int[] prefixes = new int[routeCount];
+        for (int i = 0; i < routeCount; i++) {
+            int length = random.nextInt(10) < 6 ? 24 : 8 + random.nextInt(16);
+            int prefix = random.nextInt() & prefixMask(length);
+            prefixes[i] = prefix;
+            builder.addIpv4(prefix, length, i);
+            byLength.get(length).put(prefix, i);
+        }
+        LoudsRoutingTable<Integer> table = builder.build();
+
+        int[] addresses = new int[QUERY_COUNT];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            addresses[i] = i % 2 == 0 ? prefixes[random.nextInt(routeCount)] | (random.nextInt() & 0xFF) : random.nextInt();
+        }
+
+        Map<String, IntFunction<Object>> operations = new HashMap<>();
+        operations.put("loudsRouting", i -> table.longestPrefixMatch(addresses[i]));
+        operations.put("treeMapRouting", i -> {
+            for (int length = Integer.SIZE; length >= 0; length--) {
+                Integer route = byLength.get(length).get(addresses[i] & prefixMask(length));
+                if (route != null) {
+                    return route;
+                }
+            }
+            return null;
+        });
+        return operations;
+    }
+
+    private static int prefixMask(int length) {
+        return length == 0 ? 0 : -1 << (Integer.SIZE - length);
+    }
+
+    /**
+     * ========== ГЕНЕРАЦИЯ ДАННЫХ ==========
+     */
+
+    static List<String> randomWords(int count, String alphabet, long seed) {
+        Random random = new Random(seed);
+        List<String> words = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            words.add(randomWord(random, alphabet));
+        }
+        return words;
+    }
+
+    /**
+     * Случайное слово длины от 3 до 12
+     */
+    static String randomWord(Random random, String alphabet) {
+        int length = 3 + random.nextInt(10);
+        StringBuilder word = new StringBuilder(length);
+        for (int j = 0; j < length; j++) {
+            word.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return word.toString();
+    }
+
+    /**
+     * Степени узлов дерева из nodeCount узлов в порядке обхода в ширину (от 1 до 3 детей)
+     */
+    static int[] randomDegrees(int nodeCount, long seed) {
+        Random random = new Random(seed);
+        int[] degrees = new int[nodeCount];
+        int remaining = nodeCount - 1;  // Все узлы, кроме корня, являются чьими-то детьми
+        for (int i = 0; i < nodeCount && remaining > 0; i++) {
+            degrees[i] = Math.min(remaining, 1 + random.nextInt(3));
+            remaining -= degrees[i];
+        }
+        return degrees;
+    }
+
+    static int[] randomInts(int bound, long seed) {
+        Random random = new Random(seed);
+        int[] values = new int[QUERY_COUNT];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            values[i] = random.nextInt(bound);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,50 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * Автодополнение по WeightedTrieLouds: все слова с префиксом против top-K по весу
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class AutocompleteBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int dictionarySize;
+
+    @Param({"acgt", "abcdefghijklmnopqrstuvwxyz"})
+    public String alphabet;
+
+    private IntFunction<Object> wordsWithPrefix;
+    private IntFunction<Object> topK;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Map<String, IntFunction<Object>> operations = Targets.load("autocomplete", dictionarySize, alphabet);
+        wordsWithPrefix = operations.get("wordsWithPrefix");
+        topK = operations.get("topK");
+    }
+
+    private int nextIndex() {
+        return next = (next + 1) & Targets.QUERY_MASK;
+    }
+
+    @Benchmark
+    public Object wordsWithPrefix() {
+        return wordsWithPrefix.apply(nextIndex());
+    }
+
+    @Benchmark
+    public Object topK() {
+        return topK.apply(nextIndex());
+    }
+}
@@ -0,0 +1,45 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Поиск отсортированного пакета ключей: search в цикле против searchAll
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchSearchBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int dictionarySize;
+
+    @Param({"acgt", "abcdefghijklmnopqrstuvwxyz"})
+    public String alphabet;
+
+    private Supplier<Object> searchLoop;
+    private Supplier<Object> searchAll;
+
+    @Setup
+    public void setUp() {
+        Map<String, Supplier<Object>> operations = Targets.load("batches", dictionarySize, alphabet);
+        searchLoop = operations.get("searchLoop");
+        searchAll = operations.get("searchAll");
+    }
+
+    @Benchmark
+    public Object searchLoop() {
+        return searchLoop.get();
+    }
+
+    @Benchmark
+    public Object searchAll() {
+        return searchAll.get();
+    }
+}
@@ -0,0 +1,43 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Запись битовой строки LOUDS: StringBuilder + BitSet против BitVectorBuilder.
+ * Выделяемую память показывает профилировщик: -prof gc (gc.alloc.rate.norm)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class BitWriterBenchmark {
+
+    @Param({"1000000", "10000000"})
+    public int nodeCount;
+
+    private Supplier<Object> stringBuilderBitSet;
+    private Supplier<Object> bitVectorBuilder;
+
+    @Setup
+    public void setUp() {
+        Map<String, Supplier<Object>> operations = Targets.load("bitWriters", nodeCount, "");
+        stringBuilderBitSet = operations.get("stringBuilderBitSet");
+        bitVectorBuilder = operations.get("bitVectorBuilder");
+    }
+
+    @Benchmark
+    public Object stringBuilderBitSet() {
+        return stringBuilderBitSet.get();
+    }
+
+    @Benchmark
+    public Object bitVectorBuilder() {
+        return bitVectorBuilder.get();
+    }
+}
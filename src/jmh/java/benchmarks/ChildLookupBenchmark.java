@@ -0,0 +1,50 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Стоимость одного шага поиска по символу: диапазон детей за один select0 против firstChild + degree
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ChildLookupBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int dictionarySize;
+
+    @Param({"acgt", "abcdefghijklmnopqrstuvwxyz"})
+    public String alphabet;
+
+    private IntUnaryOperator childRange;
+    private IntUnaryOperator selects;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Map<String, IntUnaryOperator> operations = Targets.load("childLookup", dictionarySize, alphabet);
+        childRange = operations.get("findChildByChar");
+        selects = operations.get("findChildByCharSelects");
+    }
+
+    private int nextIndex() {
+        return next = (next + 1) & Targets.QUERY_MASK;
+    }
+
+    @Benchmark
+    public int findChildByChar() {
+        return childRange.applyAsInt(nextIndex());
+    }
+
+    @Benchmark
+    public int findChildByCharSelects() {
+        return selects.applyAsInt(nextIndex());
+    }
+}
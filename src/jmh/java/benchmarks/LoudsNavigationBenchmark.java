@@ -0,0 +1,85 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Примитивы rank/select битового вектора и навигация по дереву LOUDS
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoudsNavigationBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int dictionarySize;
+
+    @Param({"acgt", "abcdefghijklmnopqrstuvwxyz"})
+    public String alphabet;
+
+    private IntUnaryOperator rank1;
+    private IntUnaryOperator rankTable;
+    private IntUnaryOperator select1;
+    private IntUnaryOperator select0;
+    private IntUnaryOperator firstChild;
+    private IntUnaryOperator parent;
+    private IntUnaryOperator degree;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Map<String, IntUnaryOperator> operations = Targets.load("navigation", dictionarySize, alphabet);
+        rank1 = operations.get("rank1");
+        rankTable = operations.get("rankTable");
+        select1 = operations.get("select1");
+        select0 = operations.get("select0");
+        firstChild = operations.get("firstChild");
+        parent = operations.get("parent");
+        degree = operations.get("degree");
+    }
+
+    private int nextIndex() {
+        return next = (next + 1) & Targets.QUERY_MASK;
+    }
+
+    @Benchmark
+    public int rank1() {
+        return rank1.applyAsInt(nextIndex());
+    }
+
+    @Benchmark
+    public int rankTable() {
+        return rankTable.applyAsInt(nextIndex());
+    }
+
+    @Benchmark
+    public int select1() {
+        return select1.applyAsInt(nextIndex());
+    }
+
+    @Benchmark
+    public int select0() {
+        return select0.applyAsInt(nextIndex());
+    }
+
+    @Benchmark
+    public int firstChild() {
+        return firstChild.applyAsInt(nextIndex());
+    }
+
+    @Benchmark
+    public int parent() {
+        return parent.applyAsInt(nextIndex());
+    }
+
+    @Benchmark
+    public int degree() {
+        return degree.applyAsInt(nextIndex());
+    }
+}
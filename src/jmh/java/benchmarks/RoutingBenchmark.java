@@ -0,0 +1,47 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * Поиск самого длинного префикса IPv4: таблица LOUDS против TreeMap по длинам префиксов (операций в микросекунду)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RoutingBenchmark {
+
+    @Param({"100000", "500000"})
+    public int routeCount;
+
+    private IntFunction<Object> louds;
+    private IntFunction<Object> treeMap;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Map<String, IntFunction<Object>> operations = Targets.load("routing", routeCount, "");
+        louds = operations.get("loudsRouting");
+        treeMap = operations.get("treeMapRouting");
+    }
+
+    private int nextIndex() {
+        return next = (next + 1) & Targets.QUERY_MASK;
+    }
+
+    @Benchmark
+    public Object loudsRouting() {
+        return louds.apply(nextIndex());
+    }
+
+    @Benchmark
+    public Object treeMapRouting() {
+        return treeMap.apply(nextIndex());
+    }
+}
@@ -0,0 +1,27 @@
+package benchmarks;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Map;
+
+/**
+ * Доступ к LoudsBenchmarkTargets из пакета по умолчанию (напрямую из именованного пакета он не виден)
+ */
+final class Targets {
+
+    static final int QUERY_MASK = (1 << 12) - 1;                    // LoudsBenchmarkTargets.QUERY_COUNT - 1
+
+    private Targets() {}
+
+    @SuppressWarnings("unchecked")
+    static <T> Map<String, T> load(String factory, int dictionarySize, String alphabet) {
+        try {
+            return (Map<String, T>) Class.forName("LoudsBenchmarkTargets")
+                    .getMethod(factory, int.class, String.class)
+                    .invoke(null, dictionarySize, alphabet);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException(e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
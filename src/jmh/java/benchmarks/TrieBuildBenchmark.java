@@ -0,0 +1,65 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Построение префиксного дерева: TrieLouds против обычного Trie и параллельное построение TrieLouds
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class TrieBuildBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int dictionarySize;
+
+    @Param({"acgt", "abcdefghijklmnopqrstuvwxyz"})
+    public String alphabet;
+
+    private Supplier<Object> buildLouds;
+    private Supplier<Object> buildTrie;
+    private IntFunction<Object> buildParallel;
+
+    /**
+     * Число потоков параллельного построения; отдельное состояние, чтобы параметр
+     * не умножал число запусков buildLouds и buildTrie
+     */
+    @State(Scope.Benchmark)
+    public static class Parallelism {
+
+        @Param({"1", "2", "4", "8"})
+        public int threads;
+    }
+
+    @Setup
+    public void setUp() {
+        Map<String, Supplier<Object>> operations = Targets.load("builds", dictionarySize, alphabet);
+        buildLouds = operations.get("buildLouds");
+        buildTrie = operations.get("buildTrie");
+        Map<String, IntFunction<Object>> parallelOperations = Targets.load("parallelBuilds", dictionarySize, alphabet);
+        buildParallel = parallelOperations.get("buildParallel");
+    }
+
+    @Benchmark
+    public Object buildLouds() {
+        return buildLouds.get();
+    }
+
+    @Benchmark
+    public Object buildTrie() {
+        return buildTrie.get();
+    }
+
+    @Benchmark
+    public Object buildParallel(Parallelism parallelism) {
+        return buildParallel.apply(parallelism.threads);
+    }
+}
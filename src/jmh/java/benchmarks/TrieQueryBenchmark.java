@@ -0,0 +1,148 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * Запросы к префиксному дереву: TrieLouds против обычного Trie
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TrieQueryBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int dictionarySize;
+
+    @Param({"acgt", "abcdefghijklmnopqrstuvwxyz"})
+    public String alphabet;
+
+    private IntFunction<Object> loudsSearch;
+    private IntFunction<Object> trieSearch;
+    private IntFunction<Object> hybridSearch;
+    private IntFunction<Object> patriciaSearch;
+    private IntFunction<Object> loudsStartsWith;
+    private IntFunction<Object> trieStartsWith;
+    private IntFunction<Object> loudsWordsWithPrefix;
+    private IntFunction<Object> trieWordsWithPrefix;
+    private IntFunction<Object> loudsFuzzySearch;
+    private IntFunction<Object> scanFuzzySearch;
+    private IntFunction<Object> loudsWordsMatching;
+    private IntFunction<Object> scanWordsMatching;
+    private IntFunction<Object> loudsCountWithPrefix;
+    private IntFunction<Object> listCountWithPrefix;
+    private IntFunction<Object> pageByOffset;
+    private IntFunction<Object> pageByIteratorSkip;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Map<String, IntFunction<Object>> operations = Targets.load("queries", dictionarySize, alphabet);
+        loudsSearch = operations.get("loudsSearch");
+        trieSearch = operations.get("trieSearch");
+        hybridSearch = operations.get("hybridSearch");
+        patriciaSearch = operations.get("patriciaSearch");
+        loudsStartsWith = operations.get("loudsStartsWith");
+        trieStartsWith = operations.get("trieStartsWith");
+        loudsWordsWithPrefix = operations.get("loudsWordsWithPrefix");
+        trieWordsWithPrefix = operations.get("trieWordsWithPrefix");
+        loudsFuzzySearch = operations.get("loudsFuzzySearch");
+        scanFuzzySearch = operations.get("scanFuzzySearch");
+        loudsWordsMatching = operations.get("loudsWordsMatching");
+        scanWordsMatching = operations.get("scanWordsMatching");
+        loudsCountWithPrefix = operations.get("loudsCountWithPrefix");
+        listCountWithPrefix = operations.get("listCountWithPrefix");
+        pageByOffset = operations.get("pageByOffset");
+        pageByIteratorSkip = operations.get("pageByIteratorSkip");
+    }
+
+    private int nextIndex() {
+        return next = (next + 1) & Targets.QUERY_MASK;
+    }
+
+    @Benchmark
+    public Object loudsSearch() {
+        return loudsSearch.apply(nextIndex());
+    }
+
+    @Benchmark
+    public Object trieSearch() {
+        return trieSearch.apply(nextIndex());
+    }
+
+    @Benchmark
+    public Object hybridSearch() {
+        return hybridSearch.apply(nextIndex());
+    }
+
+    @Benchmark
+    public Object patriciaSearch() {
+        return patriciaSearch.apply(nextIndex());
+    }
+
+    @Benchmark
+    public Object loudsStartsWith() {
+        return loudsStartsWith.apply(nextIndex());
+    }
+
+    @Benchmark
+    public Object trieStartsWith() {
+        return trieStartsWith.apply(nextIndex());
+    }
+
+    @Benchmark
+    public Object loudsWordsWithPrefix() {
+        return loudsWordsWithPrefix.apply(nextIndex());
+    }
+
+    @Benchmark
+    public Object trieWordsWithPrefix() {
+        return trieWordsWithPrefix.apply(nextIndex());
+    }
+
+    @Benchmark
+    public Object loudsFuzzySearch() {
+        return loudsFuzzySearch.apply(nextIndex());
+    }
+
+    @Benchmark
+    public Object scanFuzzySearch() {
+        return scanFuzzySearch.apply(nextIndex());
+    }
+
+    @Benchmark
+    public Object loudsWordsMatching() {
+        return loudsWordsMatching.apply(nextIndex());
+    }
+
+    @Benchmark
+    public Object scanWordsMatching() {
+        return scanWordsMatching.apply(nextIndex());
+    }
+
+    @Benchmark
+    public Object loudsCountWithPrefix() {
+        return loudsCountWithPrefix.apply(nextIndex());
+    }
+
+    @Benchmark
+    public Object listCountWithPrefix() {
+        return listCountWithPrefix.apply(nextIndex());
+    }
+
+    @Benchmark
+    public Object pageByOffset() {
+        return pageByOffset.apply(nextIndex());
+    }
+
+    @Benchmark
+    public Object pageByIteratorSkip() {
+        return pageByIteratorSkip.apply(nextIndex());
+    }
+}
@@ -0,0 +1,45 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Полное перечисление слов TrieLouds с фильтром: последовательный поток против параллельного
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class WordStreamBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int dictionarySize;
+
+    @Param({"acgt", "abcdefghijklmnopqrstuvwxyz"})
+    public String alphabet;
+
+    private Supplier<Object> sequentialWords;
+    private Supplier<Object> parallelWords;
+
+    @Setup
+    public void setUp() {
+        Map<String, Supplier<Object>> operations = Targets.load("wordStreams", dictionarySize, alphabet);
+        sequentialWords = operations.get("sequentialWords");
+        parallelWords = operations.get("parallelWords");
+    }
+
+    @Benchmark
+    public Object sequentialWords() {
+        return sequentialWords.get();
+    }
+
+    @Benchmark
+    public Object parallelWords() {
+        return parallelWords.get();
+    }
+}
@@ -1,17 +1,18 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
 
 /**
  * Базовая реализация LOUDS (Level-Order Unary Degree Sequence) для упорядоченных деревьев
  */
-public class BasicLouds {
+public class BasicLouds implements Closeable {
 
-    protected BitSet loudsBits;                                     // Битовый вектор LOUDS
+    protected SuccinctBitVector bits;                               // Битовый вектор LOUDS с каталогами rank/select
     protected int nodeCount;                                        // Количество узлов в дереве
     protected int totalBits;                                        // В LOUDS битовая строка всегда имеет длину 2n + 1
     protected final List<String> loudsData = new ArrayList<>();     // Данные всех узлов дерева в порядке нумерации узлов
-    protected int[] rank1Table;                                     // Таблица для ускорения rank1
-    protected int[] select1Table;                                   // Таблица для ускорения select1
-    protected int[] select0Table;                                   // Таблица для ускорения select0
+    protected OffHeapStorage storage;                               // Память вне кучи (null, если всё в куче)
 
     /**
      * Класс для представления узла дерева (для построения)
@@ -40,15 +41,27 @@ public class BasicLouds {
 
     public BasicLouds(TreeNode root) {
         buildFromTree(root);
-        buildRankSelectTables();
     }
 
     /**
-     * Построение битовой строки LOUDS или LBS (LOUDS Bit String) обходом в ширину (BFS)
+     * Чтение структуры дерева из файла LOUDS (данные узлов в файл не записываются)
+     */
+    BasicLouds(LoudsFile.Reader in) throws IOException {
+        bits = SuccinctBitVector.read(in);
+        totalBits = bits.length();
+        nodeCount = (totalBits - 1) / 2;
+        if (totalBits != 2 * nodeCount + 1 || bits.countOnes() != nodeCount) {
+            throw new IOException("Битовая строка не является корректной строкой LOUDS");
+        }
+    }
+
+    /**
+     * Построение битовой строки LOUDS или LBS (LOUDS Bit String) обходом в ширину (BFS).
+     * Биты пишутся сразу в упакованный вектор, каталоги rank/select строятся в том же проходе.
      */
     protected void buildFromTree(TreeNode root) {
-        StringBuilder bits = new StringBuilder();
-        bits.append("10");  // Искусственный корень
+        BitVectorBuilder writer = new BitVectorBuilder();
+        writer.append(true).append(false);  // Искусственный корень
 
         Queue<TreeNode> queue = new LinkedList<>();
         queue.add(root);
@@ -58,15 +71,12 @@ public class BasicLouds {
         while (!queue.isEmpty()) {
             TreeNode node = queue.poll();
 
-            loudsData.add(node.nodeData); // Записываем данные узла
+            addNodeData(node); // Записываем данные узла
 
             int degree = node.children.size(); // Определяем количество потомков
 
             // Добавляем единицы по количеству потомков и один ноль
-            for (int i = 0; i < degree; i++) {
-                bits.append('1');
-            }
-            bits.append('0');
+            writer.appendOnes(degree).append(false);
 
             // Добавляем потомков в очередь
             for (TreeNode child : node.children) {
@@ -76,40 +86,14 @@ public class BasicLouds {
         }
 
         totalBits = 2 * nodeCount + 1;
-
-        // Преобразуем строку в BitSet
-        loudsBits = new BitSet(bits.length());
-        for (int i = 0; i < bits.length(); i++) {
-            if (bits.charAt(i) == '1') {
-                loudsBits.set(i);
-            }
-        }
+        bits = writer.build();
     }
 
     /**
-     * Построение таблиц для ускорения rank и select
+     * Сохранение данных узла при построении (узлы передаются в порядке нумерации)
      */
-    protected void buildRankSelectTables() {
-        rank1Table = new int[totalBits];
-        select1Table = new int[totalBits - nodeCount - 1];
-        select0Table = new int[nodeCount + 1];
-
-        int cnt1 = 0;
-        int cnt0 = 0;
-        for (int i = 0; i < totalBits; i++) {
-            if (loudsBits.get(i))
-            {
-                select1Table[cnt1] = i;
-                cnt1++;
-            }
-            else
-            {
-                select0Table[cnt0] = i;
-                cnt0++;
-            }
-            rank1Table[i] = cnt1;
-        }
-
+    protected void addNodeData(TreeNode node) {
+        loudsData.add(node.nodeData);
     }
 
     /**
@@ -117,8 +101,8 @@ public class BasicLouds {
      */
     public int rank1(int i) {
         if (i < 0) return 0;
-        if (i > totalBits) return totalBits - nodeCount - 1;
-        return rank1Table[i];
+        if (i >= totalBits) return totalBits - nodeCount - 1;
+        return bits.rank1(i + 1);
     }
 
     /**
@@ -126,8 +110,8 @@ public class BasicLouds {
      */
     public int rank0(int i) {
         if (i < 0) return 0;
-        if (i > totalBits) return nodeCount + 1;
-        return i - rank1Table[i] + 1;
+        if (i >= totalBits) return nodeCount + 1;
+        return bits.rank0(i + 1);
     }
 
     /**
@@ -135,7 +119,7 @@ public class BasicLouds {
      */
     public int select1(int k) {
         if (k <= 0 || k > totalBits - nodeCount - 1) return -1;
-        return select1Table[k-1];
+        return bits.select1(k - 1);
     }
 
     /**
@@ -143,13 +127,39 @@ public class BasicLouds {
      */
     public int select0(int k) {
         if (k <= 0 || k > nodeCount + 1) return -1;
-        return select0Table[k-1];
+        return bits.select0(k - 1);
     }
 
     /**
      * ========== МЕТОДЫ НАВИГАЦИИ ПО ДЕРЕВУ ==========
      */
 
+    /**
+     * Диапазон детей узла [first, end) за один select0 и поиск следующего нуля: единицы узла идут
+     * сразу после его нуля, их количество - степень узла. Упакован в long (first - в старших 32 битах,
+     * end - в младших), см. rangeFirst/rangeEnd. Для листа first == end.
+     */
+    public long childRange(int nodeNumber) {
+        int nodePos = bits.select0(nodeNumber);  // Ноль узла (nodeNumber + 1)-й по счёту
+        int first = nodePos - nodeNumber;        // Номер первого ребёнка
+        int end = first + bits.nextZero(nodePos + 1) - nodePos - 1;
+        return ((long) first << 32) | end;
+    }
+
+    /**
+     * Первый ребёнок диапазона childRange
+     */
+    public static int rangeFirst(long range) {
+        return (int) (range >>> 32);
+    }
+
+    /**
+     * Конец (не включительно) диапазона childRange
+     */
+    public static int rangeEnd(long range) {
+        return (int) range;
+    }
+
     /**
      * Получить родителя узла (по номеру узла)
      */
@@ -161,23 +171,18 @@ public class BasicLouds {
      * Получить первого ребёнка узла
      */
     public int firstChild(int nodeNumber) {
-        int nodePos = select0(nodeNumber+1);
-        // Если следующий бит узла - 0, то детей нет
-        if (!loudsBits.get(nodePos + 1)) {
-            return -1;  // Нет детей
-        }
-        return nodePos - nodeNumber;
+        long range = childRange(nodeNumber);
+        int first = rangeFirst(range);
+        return first == rangeEnd(range) ? -1 : first;  // -1, если детей нет
     }
 
     /**
      * Получить последнего ребёнка узла
      */
     public int lastChild(int nodeNumber) {
-        int nodePos = select0(nodeNumber+1);
-        if (!loudsBits.get(nodePos + 1)) {
-            return -1;  // Нет детей
-        }
-        return rank1(select0(nodeNumber+2)-2);
+        long range = childRange(nodeNumber);
+        int end = rangeEnd(range);
+        return rangeFirst(range) == end ? -1 : end - 1;  // -1, если детей нет
     }
 
     /**
@@ -205,23 +210,26 @@ public class BasicLouds {
     public boolean isLeaf(int nodeNumber) {
         int nodePos = select0(nodeNumber+1);
         // Если следующий бит узла - 0, то детей нет
-        return !loudsBits.get(nodePos + 1);
+        return !bits.get(nodePos + 1);
     }
 
     /**
      * Получить степень узла (количество детей)
      */
     public int degree(int nodeNumber) {
-        if (firstChild(nodeNumber) == -1) return 0;
-        return lastChild(nodeNumber) - firstChild(nodeNumber) + 1;
+        long range = childRange(nodeNumber);
+        return rangeEnd(range) - rangeFirst(range);
     }
 
     /**
      * Получить i-го ребёнка (индексация с 1)
      */
     public int child(int nodeNumber, int childIndex) {
-        if (childIndex < 1 || childIndex > degree(nodeNumber)) return - 1;
-        return firstChild(nodeNumber) + childIndex - 1;
+        if (nodeNumber < 0 || childIndex < 1) return -1;
+        long range = childRange(nodeNumber);
+        int first = rangeFirst(range);
+        if (childIndex > rangeEnd(range) - first) return -1;
+        return first + childIndex - 1;
     }
 
     /**
@@ -244,7 +252,7 @@ public class BasicLouds {
         StringBuilder sb = new StringBuilder();
 
         for (int i = 0; i < totalBits; i++) {
-            boolean bit = loudsBits.get(i);
+            boolean bit = bits.get(i);
             sb.append(bit ? '1' : '0');
             if (!bit) {
                 sb.append(' ');
@@ -270,10 +278,108 @@ public class BasicLouds {
 
     /**
      * Получить данные узла
+     *
+     * @throws UnsupportedOperationException если структура открыта из файла (LoudsFile.map):
+     * данные узлов BasicLouds в файл не записываются
      */
     public String getNodeData(int nodeNumber)
     {
+        if (loudsData.isEmpty() && nodeCount > 0) {
+            throw new UnsupportedOperationException("Данные узлов не сохраняются в файл LOUDS");
+        }
         return loudsData.get(nodeNumber);
     }
 
-}
\ No newline at end of file
+    /**
+     * ========== РАЗМЕР В ПАМЯТИ ==========
+     */
+
+    /**
+     * Размер компонентов структуры в байтах, в порядке добавления. Буферы (биты, каталоги, символы)
+     * считаются точно по ёмкости, данные узлов-строк - оценкой MemoryEstimate.
+     */
+    public Map<String, Long> memoryBreakdown() {
+        Map<String, Long> breakdown = new LinkedHashMap<>();
+        breakdown.put("bits", bits.bitsBytes());                               // Битовая строка LOUDS
+        breakdown.put("rankDirectory", bits.rankDirectoryBytes());             // Каталог rank
+        breakdown.put("selectSamples", bits.selectSamplesBytes());             // Выборки select
+        if (!loudsData.isEmpty()) {
+            breakdown.put("nodeData", MemoryEstimate.stringList(loudsData));   // Данные узлов
+        }
+        return breakdown;
+    }
+
+    /**
+     * Полный размер структуры в байтах (сумма memoryBreakdown)
+     */
+    public long sizeInBytes() {
+        long size = 0;
+        for (long bytes : memoryBreakdown().values()) {
+            size += bytes;
+        }
+        return size;
+    }
+
+    /**
+     * Размер структуры в битах на узел
+     */
+    public double bitsPerNode() {
+        return sizeInBytes() * 8.0 / nodeCount;
+    }
+
+    /**
+     * ========== ХРАНЕНИЕ ВНЕ КУЧИ И ЗАПИСЬ В ФАЙЛ ==========
+     */
+
+    /**
+     * Копия структуры, битовый вектор и каталоги rank/select которой лежат в прямых буферах вне кучи
+     * и не просматриваются сборщиком мусора (данные узлов остаются в куче).
+     * Память освобождается вызовом close().
+     */
+    public BasicLouds toOffHeap() {
+        OffHeapStorage offHeap = new OffHeapStorage();
+        BasicLouds copy = new BasicLouds();
+        copy.bits = bits.copyTo(offHeap);
+        copy.nodeCount = nodeCount;
+        copy.totalBits = totalBits;
+        copy.loudsData.addAll(loudsData);
+        copy.storage = offHeap;
+        return copy;
+    }
+
+    /**
+     * Освободить память вне кучи (прямые буферы или отображение файла).
+     * После закрытия такой структурой пользоваться нельзя; нельзя и закрывать её,
+     * пока другие потоки выполняют запросы. Для структуры в куче ничего не делает.
+     */
+    @Override
+    public void close() {
+        if (storage != null) {
+            bits = null;
+            storage.close();
+            storage = null;
+        }
+    }
+
+    /**
+     * Сохранить структуру в файл для последующего открытия через LoudsFile.map
+     */
+    public void save(Path path) throws IOException {
+        LoudsFile.write(this, path);
+    }
+
+    /**
+     * Вид структуры в заголовке файла
+     */
+    protected int fileKind() {
+        return LoudsFile.KIND_BASIC;
+    }
+
+    /**
+     * Запись секций структуры после заголовка файла
+     */
+    protected void writeSections(LoudsFile.Writer out) throws IOException {
+        bits.writeTo(out);
+    }
+
+}
@@ -0,0 +1,196 @@
+import java.util.Arrays;
+
+/**
+ * Построитель SuccinctBitVector: биты дописываются только в конец сразу в упакованный массив long.
+ *
+ * Каталог rank и выборки select заполняются по мере заполнения слов, поэтому после
+ * последнего append остаётся только обрезать массивы - отдельного прохода по битам нет.
+ */
+public class BitVectorBuilder {
+
+    private long[] words;                                           // Заполненные слова
+    private long current;                                           // Текущее незаполненное слово
+    private int length;                                             // Количество записанных бит
+
+    private long[] rankDirectory = new long[1];                     // Каталог rank (по значению на суперблок)
+    private int[] select1Samples = new int[1];                      // Позиции каждой 4096-й единицы
+    private int[] select0Samples = new int[1];                      // Позиции каждого 4096-го нуля
+    private int select1Count;                                       // Количество записанных выборок единиц
+    private int select0Count;                                       // Количество записанных выборок нулей
+    private int ones;                                               // Единицы в заполненных словах
+    private int zeros;                                              // Нули в заполненных словах
+
+    private boolean built;
+
+    public BitVectorBuilder() {
+        this(64);
+    }
+
+    /**
+     * @param expectedBits ожидаемая длина вектора (для начального размера массива)
+     */
+    public BitVectorBuilder(int expectedBits) {
+        words = new long[Math.max(1, (expectedBits + 63) >>> SuccinctBitVector.WORD_BITS_LOG)];
+    }
+
+    /**
+     * Построитель, заполненный готовыми упакованными словами
+     */
+    static BitVectorBuilder of(long[] words, int length) {
+        BitVectorBuilder builder = new BitVectorBuilder(length);
+        int fullWords = length >>> SuccinctBitVector.WORD_BITS_LOG;
+        for (int w = 0; w < fullWords; w++) {
+            builder.appendBits(w < words.length ? words[w] : 0L, 64);
+        }
+        if ((length & 63) != 0) {
+            builder.appendBits(fullWords < words.length ? words[fullWords] : 0L, length & 63);
+        }
+        return builder;
+    }
+
+    /**
+     * Дописать один бит
+     */
+    public BitVectorBuilder append(boolean bit) {
+        return appendBits(bit ? 1L : 0L, 1);
+    }
+
+    /**
+     * Дописать count единиц подряд
+     */
+    public BitVectorBuilder appendOnes(int count) {
+        while (count >= 64) {
+            appendBits(-1L, 64);
+            count -= 64;
+        }
+        return appendBits(-1L, count);
+    }
+
+    /**
+     * Дописать count младших бит value (0 <= count <= 64)
+     */
+    public BitVectorBuilder appendBits(long value, int count) {
+        if (built) {
+            throw new IllegalStateException("Битовый вектор уже построен");
+        }
+        if (count < 64) {
+            value &= (1L << count) - 1;
+        }
+        int offset = length & 63;
+        int w = length >>> SuccinctBitVector.WORD_BITS_LOG;
+        current |= value << offset;
+        length += count;
+        if (offset + count >= 64) {
+            flushWord(w, current, 64);
+            current = offset == 0 ? 0L : value >>> (64 - offset);
+        }
+        return this;
+    }
+
+    /**
+     * Дописать все биты другого (ещё не построенного) построителя
+     */
+    public BitVectorBuilder appendAll(BitVectorBuilder other) {
+        int fullWords = other.length >>> SuccinctBitVector.WORD_BITS_LOG;
+        for (int w = 0; w < fullWords; w++) {
+            appendBits(other.words[w], 64);
+        }
+        return appendBits(other.current, other.length & 63);
+    }
+
+    /**
+     * Дописать биты [from, to) готового вектора
+     */
+    public BitVectorBuilder appendRange(SuccinctBitVector source, int from, int to) {
+        for (int i = from; i < to; i += 64) {
+            int count = Math.min(64, to - i);
+            appendBits(source.getBits(i, count), count);
+        }
+        return this;
+    }
+
+    /**
+     * Количество записанных бит
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Завершить построение. После вызова построитель использовать нельзя.
+     */
+    public SuccinctBitVector build() {
+        if (built) {
+            throw new IllegalStateException("Битовый вектор уже построен");
+        }
+        built = true;
+
+        int tailBits = length & 63;
+        if (tailBits != 0) {
+            flushWord(length >>> SuccinctBitVector.WORD_BITS_LOG, current, tailBits);
+        }
+
+        int wordCount = (length + 63) >>> SuccinctBitVector.WORD_BITS_LOG;
+        int superblocks = (wordCount + SuccinctBitVector.WORDS_PER_SUPERBLOCK - 1) / SuccinctBitVector.WORDS_PER_SUPERBLOCK;
+        rankDirectory = ensureCapacity(rankDirectory, superblocks + 1);
+        rankDirectory[superblocks] = (long) ones << 32;
+
+        return new SuccinctBitVector(
+                Arrays.copyOf(words, wordCount),
+                length,
+                Arrays.copyOf(rankDirectory, superblocks + 1),
+                ones,
+                Arrays.copyOf(select1Samples, select1Count),
+                Arrays.copyOf(select0Samples, select0Count));
+    }
+
+    /**
+     * Запись очередного слова и обновление каталога rank и выборок select
+     *
+     * @param w номер слова
+     * @param validBits сколько младших бит слова относятся к вектору (меньше 64 только для последнего слова)
+     */
+    private void flushWord(int w, long word, int validBits) {
+        if (w == words.length) {
+            words = Arrays.copyOf(words, words.length * 2);
+        }
+        words[w] = word;
+
+        // Каталог rank: новое значение в начале суперблока, счетчики первых трёх блоков
+        int superblock = w >>> (SuccinctBitVector.SUPERBLOCK_BITS_LOG - SuccinctBitVector.WORD_BITS_LOG);
+        if ((w & (SuccinctBitVector.WORDS_PER_SUPERBLOCK - 1)) == 0) {
+            rankDirectory = ensureCapacity(rankDirectory, superblock + 1);
+            rankDirectory[superblock] = (long) ones << 32;
+        }
+        int block = (w >>> (SuccinctBitVector.BLOCK_BITS_LOG - SuccinctBitVector.WORD_BITS_LOG)) & 3;
+        int wordOnes = Long.bitCount(word);
+        if (block < 3) {
+            rankDirectory[superblock] += (long) wordOnes << (20 - 10 * block);
+        }
+
+        // Выборки select: в одно слово попадает не больше одной выборки каждого вида
+        int base = w << SuccinctBitVector.WORD_BITS_LOG;
+        int nextOne = select1Count << SuccinctBitVector.SELECT_SAMPLE_LOG;
+        if (nextOne < ones + wordOnes) {
+            select1Samples = ensureCapacity(select1Samples, select1Count + 1);
+            select1Samples[select1Count++] = base + SuccinctBitVector.selectInWord(word, nextOne - ones);
+        }
+        int wordZeros = validBits - wordOnes;
+        int nextZero = select0Count << SuccinctBitVector.SELECT_SAMPLE_LOG;
+        if (nextZero < zeros + wordZeros) {
+            select0Samples = ensureCapacity(select0Samples, select0Count + 1);
+            select0Samples[select0Count++] = base + SuccinctBitVector.selectInWord(~word, nextZero - zeros);
+        }
+
+        ones += wordOnes;
+        zeros += wordZeros;
+    }
+
+    private static long[] ensureCapacity(long[] array, int size) {
+        return size <= array.length ? array : Arrays.copyOf(array, Math.max(size, array.length * 2));
+    }
+
+    private static int[] ensureCapacity(int[] array, int size) {
+        return size <= array.length ? array : Arrays.copyOf(array, Math.max(size, array.length * 2));
+    }
+}
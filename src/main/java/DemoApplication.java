@@ -71,6 +71,8 @@ public class DemoApplication {
         prefixTimeTest();
         System.out.println("\nВремя создания:");
         buildTimeAndMemoryTest();
+        System.out.println("\nТочный размер структур по компонентам:");
+        memoryFootprintTest();
     }
 
     public static TrieLouds generateTestLouds(List<String> words)
@@ -399,4 +401,28 @@ public class DemoApplication {
         runtime.gc();
         return runtime.totalMemory() - runtime.freeMemory();
     }
+
+    /**
+     * Размер структур по компонентам без замеров Runtime: LOUDS Trie, Patricia LOUDS Trie и оценка для Trie
+     */
+    private static void memoryFootprintTest() {
+        List<String> benchmarkWords = generateWords(100_000, 3, 10);
+        int[] iterCnt = {10000, 100000};
+        System.out.println("| Количество слов | Структура | Размер (Кб) | Бит на узел | Бит на слово | Компоненты (байт) |");
+        System.out.println("|:---------------:|:---------:|:-----------:|:-----------:|:------------:|:-----------------:|");
+        for (int i : iterCnt) {
+            List<String> words = benchmarkWords.subList(0, i);
+            TrieLouds louds = TrieLouds.buildFromWordList(words);
+            System.out.printf("| %d | LOUDS Trie | %d | %.1f | %.1f | %s |%n", i, louds.sizeInBytes() / 1024,
+                    louds.bitsPerNode(), louds.bitsPerKey(), louds.memoryBreakdown());
+
+            PatriciaTrieLouds patricia = PatriciaTrieLouds.buildFromWordList(words);
+            System.out.printf("| %d | Patricia LOUDS Trie | %d | %.1f | %.1f | %s |%n", i, patricia.sizeInBytes() / 1024,
+                    patricia.bitsPerNode(), patricia.bitsPerKey(), patricia.memoryBreakdown());
+
+            Trie trie = generateTestTrie(words);
+            System.out.printf("| %d | Trie (оценка) | %d | %.1f | %.1f | %s |%n", i, trie.estimateSizeInBytes() / 1024,
+                    trie.bitsPerNode(), trie.bitsPerKey(), trie.estimateMemoryBreakdown());
+        }
+    }
 }
@@ -0,0 +1,174 @@
+import java.io.Closeable;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Держатель неизменяемого словаря TrieLouds с заменой "на лету".
+ *
+ * Читатели получают текущий снимок через get() без блокировок. Новый словарь строится
+ * в фоновом исполнителе из обновлённого списка слов и затем атомарно подменяет текущий;
+ * читатели, уже взявшие старый снимок, дорабатывают с ним. Если перестроения завершаются
+ * не в порядке запросов, более старый результат не вытесняет более новый.
+ *
+ * Заменённые снимки не закрываются: держатель рассчитан на словари в куче,
+ * которые освобождает сборщик мусора.
+ */
+public class DictionaryHolder implements Closeable {
+
+    /**
+     * Снимок словаря с номером запроса, из которого он построен
+     */
+    private static final class Snapshot {
+        final TrieLouds trie;
+        final long version;
+
+        Snapshot(TrieLouds trie, long version) {
+            this.trie = trie;
+            this.version = version;
+        }
+    }
+
+    private final AtomicReference<Snapshot> current;
+    private final Executor executor;
+    private final boolean ownsExecutor;                             // Исполнитель создан держателем и закрывается в close()
+    private final AtomicLong requested = new AtomicLong();          // Номер последнего запроса на перестроение
+
+    private final AtomicLong swapCount = new AtomicLong();          // Количество замен снимка
+    private final AtomicLong failedBuilds = new AtomicLong();       // Количество неудачных перестроений
+    private volatile long lastBuildNanos = -1;                      // Длительность последнего построения
+    private volatile long lastSwapLatencyNanos = -1;                // От запроса до публикации последнего снимка
+
+    /**
+     * Держатель со своим фоновым потоком для перестроений
+     */
+    public DictionaryHolder(TrieLouds initial) {
+        this(initial, Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "louds-dictionary-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        }), true);
+    }
+
+    /**
+     * Держатель, перестраивающий словарь в переданном исполнителе (исполнитель не закрывается)
+     */
+    public DictionaryHolder(TrieLouds initial, Executor executor) {
+        this(initial, executor, false);
+    }
+
+    private DictionaryHolder(TrieLouds initial, Executor executor, boolean ownsExecutor) {
+        this.current = new AtomicReference<>(new Snapshot(Objects.requireNonNull(initial), 0));
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    /**
+     * ========== ЧТЕНИЕ И ПЕРЕСТРОЕНИЕ ==========
+     */
+
+    /**
+     * Текущий снимок словаря
+     */
+    public TrieLouds get() {
+        return current.get().trie;
+    }
+
+    /**
+     * Поиск слова в текущем снимке
+     */
+    public boolean search(String word) {
+        return get().search(word);
+    }
+
+    /**
+     * Перестроить словарь из нового списка слов в фоне (список копируется сразу)
+     */
+    public CompletableFuture<TrieLouds> rebuild(Collection<String> words) {
+        List<String> copy = new ArrayList<>(words);
+        return rebuild(() -> TrieLouds.buildFromWordList(copy));
+    }
+
+    /**
+     * Построить новый словарь в фоне и опубликовать его.
+     * При ошибке построения текущий снимок остаётся прежним.
+     *
+     * @return будущий результат: построенный словарь (опубликован, если более новый запрос не успел раньше)
+     */
+    public CompletableFuture<TrieLouds> rebuild(Supplier<? extends TrieLouds> builder) {
+        long version = requested.incrementAndGet();
+        long requestTime = System.nanoTime();
+
+        return CompletableFuture.<TrieLouds>supplyAsync(() -> {
+            long buildStart = System.nanoTime();
+            TrieLouds trie = Objects.requireNonNull(builder.get());
+            lastBuildNanos = System.nanoTime() - buildStart;
+            publish(new Snapshot(trie, version), requestTime);
+            return trie;
+        }, executor).whenComplete((trie, error) -> {
+            if (error != null) {
+                failedBuilds.incrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * Заменить снимок, если он новее текущего
+     */
+    private void publish(Snapshot snapshot, long requestTime) {
+        Snapshot previous;
+        do {
+            previous = current.get();
+            if (previous.version > snapshot.version) {
+                return; // Уже опубликован результат более нового запроса
+            }
+        } while (!current.compareAndSet(previous, snapshot));
+        lastSwapLatencyNanos = System.nanoTime() - requestTime;
+        swapCount.incrementAndGet();
+    }
+
+    /**
+     * ========== МЕТРИКИ ==========
+     */
+
+    /**
+     * Длительность последнего построения в наносекундах (-1, если построений не было)
+     */
+    public long getLastBuildNanos() {
+        return lastBuildNanos;
+    }
+
+    /**
+     * Время от запроса перестроения до публикации последнего снимка в наносекундах
+     * (включает ожидание в очереди исполнителя; -1, если замен не было)
+     */
+    public long getLastSwapLatencyNanos() {
+        return lastSwapLatencyNanos;
+    }
+
+    /**
+     * Количество замен снимка
+     */
+    public long getSwapCount() {
+        return swapCount.get();
+    }
+
+    /**
+     * Количество перестроений, завершившихся ошибкой
+     */
+    public long getFailedBuildCount() {
+        return failedBuilds.get();
+    }
+
+    /**
+     * Остановить собственный фоновый поток (переданный в конструктор исполнитель не трогается)
+     */
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            ((ExecutorService) executor).shutdown();
+        }
+    }
+}
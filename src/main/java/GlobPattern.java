@@ -0,0 +1,201 @@
+/**
+ * Шаблон вида glob, скомпилированный в недетерминированный автомат с множеством состояний в битовой маске.
+ *
+ * Синтаксис: '?' - любой символ, '*' - любая строка (в том числе пустая), [abc], [a-z] - символ из класса,
+ * [!abc] или [^abc] - символ не из класса, '\' экранирует следующий символ. Остальные символы
+ * совпадают сами с собой.
+ *
+ * Состояние i означает, что первые i элементов шаблона уже сопоставлены; состояние n (число элементов)
+ * - допускающее. Множество активных состояний - маска long, поэтому в шаблоне не больше 63 элементов
+ * (подряд идущие '*' считаются одним).
+ */
+final class GlobPattern {
+
+    static final int MAX_ELEMENTS = Long.SIZE - 1;                  // Состояний на одно больше, чем элементов
+
+    private static final byte LITERAL = 0;                          // Конкретный символ
+    private static final byte ANY = 1;                              // '?'
+    private static final byte STAR = 2;                             // '*'
+    private static final byte CLASS = 3;                            // [...]
+
+    private final byte[] types = new byte[MAX_ELEMENTS];            // Вид каждого элемента
+    private final char[] literals = new char[MAX_ELEMENTS];         // Символ элемента LITERAL
+    private final char[][] ranges = new char[MAX_ELEMENTS][];       // Пары границ [от, до] элемента CLASS
+    private final boolean[] negated = new boolean[MAX_ELEMENTS];    // Класс с '!' или '^'
+    private final long starMask;                                    // Состояния перед элементом '*'
+    private final int size;                                         // Число элементов
+
+    private GlobPattern(String pattern) {
+        int count = 0;
+        long stars = 0;
+        int i = 0;
+        while (i < pattern.length()) {
+            char ch = pattern.charAt(i++);
+            if (ch == '*' && count > 0 && types[count - 1] == STAR) {
+                continue; // '**' эквивалентно '*'
+            }
+            if (count == MAX_ELEMENTS) {
+                throw new IllegalArgumentException("В шаблоне больше " + MAX_ELEMENTS + " элементов: " + pattern);
+            }
+            switch (ch) {
+                case '?':
+                    types[count] = ANY;
+                    break;
+                case '*':
+                    types[count] = STAR;
+                    stars |= 1L << count;
+                    break;
+                case '[':
+                    i = parseClass(pattern, i, count);
+                    types[count] = CLASS;
+                    break;
+                case '\\':
+                    if (i == pattern.length()) {
+                        throw new IllegalArgumentException("Шаблон заканчивается на '\\': " + pattern);
+                    }
+                    types[count] = LITERAL;
+                    literals[count] = pattern.charAt(i++);
+                    break;
+                default:
+                    types[count] = LITERAL;
+                    literals[count] = ch;
+            }
+            count++;
+        }
+        this.size = count;
+        this.starMask = stars;
+    }
+
+    /**
+     * Разобрать класс, начинающийся после '[' в позиции from
+     *
+     * @return позиция после закрывающей ']'
+     */
+    private int parseClass(String pattern, int from, int element) {
+        int i = from;
+        if (i < pattern.length() && (pattern.charAt(i) == '!' || pattern.charAt(i) == '^')) {
+            negated[element] = true;
+            i++;
+        }
+        StringBuilder bounds = new StringBuilder();
+        boolean first = true;
+        while (i < pattern.length() && (pattern.charAt(i) != ']' || first)) {
+            char low = pattern.charAt(i++);
+            if (low == '\\' && i < pattern.length()) {
+                low = pattern.charAt(i++);
+            }
+            char high = low;
+            if (i + 1 < pattern.length() && pattern.charAt(i) == '-' && pattern.charAt(i + 1) != ']') {
+                high = pattern.charAt(i + 1);
+                i += 2;
+                if (high == '\\' && i < pattern.length()) {
+                    high = pattern.charAt(i++);
+                }
+                if (high < low) {
+                    throw new IllegalArgumentException("Неверный диапазон " + low + "-" + high + " в шаблоне: " + pattern);
+                }
+            }
+            bounds.append(low).append(high);
+            first = false;
+        }
+        if (i == pattern.length()) {
+            throw new IllegalArgumentException("Нет закрывающей ']' в шаблоне: " + pattern);
+        }
+        ranges[element] = bounds.toString().toCharArray();
+        return i + 1;
+    }
+
+    /**
+     * Скомпилировать шаблон
+     *
+     * @throws IllegalArgumentException если шаблон некорректен или длиннее MAX_ELEMENTS элементов
+     */
+    static GlobPattern compile(String pattern) {
+        return new GlobPattern(pattern);
+    }
+
+    /**
+     * Начальное множество состояний (ничего не прочитано)
+     */
+    long initial() {
+        return closure(1L);
+    }
+
+    /**
+     * Множество состояний после чтения символа ch; 0 - шаблон не может совпасть ни с одним продолжением
+     */
+    long step(long states, char ch) {
+        long next = 0;
+        for (long rest = states; rest != 0; rest &= rest - 1) {
+            int state = Long.numberOfTrailingZeros(rest);
+            if (state == size) {
+                continue; // Из допускающего состояния переходов нет
+            }
+            switch (types[state]) {
+                case STAR:
+                    next |= 1L << state; // '*' поглощает символ и остаётся на месте
+                    break;
+                case ANY:
+                    next |= 1L << (state + 1);
+                    break;
+                case LITERAL:
+                    if (literals[state] == ch) {
+                        next |= 1L << (state + 1);
+                    }
+                    break;
+                default:
+                    if (classMatches(state, ch)) {
+                        next |= 1L << (state + 1);
+                    }
+            }
+        }
+        return closure(next);
+    }
+
+    /**
+     * Добавить состояния, достижимые без чтения символа: '*' может совпасть с пустой строкой.
+     * Подряд идущих '*' нет, поэтому достаточно одного шага.
+     */
+    private long closure(long states) {
+        return states | ((states & starMask) << 1);
+    }
+
+    private boolean classMatches(int element, char ch) {
+        char[] bounds = ranges[element];
+        boolean inside = false;
+        for (int i = 0; i < bounds.length && !inside; i += 2) {
+            inside = bounds[i] <= ch && ch <= bounds[i + 1];
+        }
+        return inside != negated[element];
+    }
+
+    /**
+     * Слово, прочитанное до этого множества состояний, совпадает с шаблоном
+     */
+    boolean isAccepting(long states) {
+        return (states & (1L << size)) != 0;
+    }
+
+    /**
+     * Какое-то продолжение может совпасть: активно хотя бы одно состояние, кроме допускающего
+     */
+    boolean canContinue(long states) {
+        return (states & ~(1L << size)) != 0;
+    }
+
+    /**
+     * Единственный символ, по которому из множества состояний есть переход, или -1, если таких символов
+     * больше (тогда дети узла перебираются, иначе ребёнок находится двоичным поиском)
+     */
+    int singleLiteral(long states) {
+        int literal = -1;
+        for (long rest = states & ~(1L << size); rest != 0; rest &= rest - 1) {
+            int state = Long.numberOfTrailingZeros(rest);
+            if (types[state] != LITERAL || (literal != -1 && literal != literals[state])) {
+                return -1;
+            }
+            literal = literals[state];
+        }
+        return literal;
+    }
+}
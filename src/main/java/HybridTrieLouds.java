@@ -0,0 +1,289 @@
+import java.util.*;
+
+/**
+ * Гибридное префиксное дерево LOUDS-DS: плотное кодирование верхних уровней и разреженное - нижних.
+ *
+ * Верхние уровни (глубина меньше cutoff) обычно почти полностью ветвятся, и бинарный поиск
+ * по символам детей там самый дорогой. Каждый внутренний узел этих уровней хранит:
+ *  - 256-битную карту символов детей (denseLabels): бит слота узел * 256 + символ;
+ *  - 256-битную карту "ребёнок - внутренний плотный узел" (denseHasChild);
+ *  - признак конца слова в самом узле (densePrefixKey).
+ * Переход по символу - проверка одного бита и rank по карте, без поиска.
+ * Номер плотного узла - 1 + rank1(denseHasChild, слот), корень - узел 0. Ребёнок без своих детей -
+ * лист, а лист префиксного дерева всегда конец слова.
+ *
+ * Узлы на глубине cutoff и ниже хранятся в обычном разреженном TrieLouds как лес под искусственным
+ * корнем: их порядок BFS совпадает с порядком во всём дереве, поэтому битовая строка леса -
+ * это хвост строки LOUDS всего дерева. Ребёнок последнего плотного уровня по слоту находится
+ * через rank1(denseLabels, слот): рёбра плотных уровней пронумерованы в порядке BFS их концов.
+ *
+ * Плотное кодирование требует символов меньше 256; уровень с другими символами и все ниже него
+ * остаются разреженными.
+ */
+public class HybridTrieLouds {
+
+    static final int FANOUT = 256;                                  // Слотов в карте плотного узла
+    static final int DEFAULT_SIZE_RATIO = 16;                       // Разреженная часть во столько раз больше плотной
+    private static final int SPARSE_BITS_PER_NODE = 2 + Character.SIZE + 1; // LOUDS + символ + конец слова
+
+    protected final int cutoff;                                     // Количество плотных уровней
+    protected final SuccinctBitVector denseLabels;                  // Карты символов детей плотных узлов
+    protected final SuccinctBitVector denseHasChild;                // Ребёнок - внутренний плотный узел
+    protected final SuccinctBitVector densePrefixKey;               // Плотный узел - конец слова
+    protected final int lastLevelFirstNode;                         // Первый плотный узел последнего плотного уровня
+    protected final int sparseBase;                                 // Номер первого разреженного узла во всём дереве
+    protected final TrieLouds sparse;                               // Лес нижних уровней под искусственным корнем
+
+    private HybridTrieLouds(int cutoff, SuccinctBitVector denseLabels, SuccinctBitVector denseHasChild,
+                            SuccinctBitVector densePrefixKey, int lastLevelFirstNode, int sparseBase, TrieLouds sparse) {
+        this.cutoff = cutoff;
+        this.denseLabels = denseLabels;
+        this.denseHasChild = denseHasChild;
+        this.densePrefixKey = densePrefixKey;
+        this.lastLevelFirstNode = lastLevelFirstNode;
+        this.sparseBase = sparseBase;
+        this.sparse = sparse;
+    }
+
+    /**
+     * Построение с выбором границы по соотношению размеров DEFAULT_SIZE_RATIO
+     */
+    public static HybridTrieLouds buildFromWordList(List<String> words) {
+        return buildWithSizeRatio(TrieLouds.buildFromWordList(words), DEFAULT_SIZE_RATIO);
+    }
+
+    /**
+     * Граница - наибольшее число плотных уровней, при котором плотная часть не больше
+     * разреженной, делённой на sizeRatio (чем больше sizeRatio, тем меньше плотных уровней)
+     */
+    public static HybridTrieLouds buildWithSizeRatio(TrieLouds trie, int sizeRatio) {
+        int[] levelStarts = levelStarts(trie);
+        int levels = levelStarts.length - 1;
+
+        int cutoff = 0;
+        long internal = 0; // Внутренние узлы уровней выше кандидата
+        for (int candidate = 1; candidate <= levels; candidate++) {
+            internal += countInternal(trie, levelStarts[candidate - 1], levelStarts[candidate]);
+            long denseBits = internal * (2L * FANOUT + 1);
+            long sparseBits = (long) (trie.getNodeCount() - levelStarts[candidate]) * SPARSE_BITS_PER_NODE;
+            if (denseBits * sizeRatio > sparseBits) {
+                break;
+            }
+            cutoff = candidate;
+        }
+        return buildWithCutoff(trie, cutoff);
+    }
+
+    /**
+     * Построение с заданным числом плотных уровней (уменьшается, если ниже встречаются символы от 256)
+     */
+    public static HybridTrieLouds buildWithCutoff(TrieLouds trie, int cutoff) {
+        int[] levelStarts = levelStarts(trie);
+        int levels = levelStarts.length - 1;
+        cutoff = Math.max(0, Math.min(cutoff, levels));
+
+        // Символы рёбер плотных уровней (узлы глубины 1..cutoff) должны помещаться в карту
+        int checkedEnd = levelStarts[Math.min(cutoff + 1, levels)];
+        for (int node = 1; node < checkedEnd; node++) {
+            if (trie.labels.get(node) >= FANOUT) {
+                cutoff = depthOf(levelStarts, node) - 1; // Ребро на глубину d выходит из уровня d - 1
+                break;
+            }
+        }
+        int sparseBase = cutoff < levels ? levelStarts[cutoff] : trie.getNodeCount();
+
+        // Плотная часть: внутренние узлы глубины меньше cutoff в порядке BFS (корень - всегда)
+        BitVectorBuilder labels = new BitVectorBuilder();
+        BitVectorBuilder hasChild = new BitVectorBuilder();
+        BitVectorBuilder prefixKey = new BitVectorBuilder();
+        int denseNodes = 0;
+        int lastLevelFirstNode = 0;
+        long[] labelMap = new long[FANOUT / 64];
+        long[] childMap = new long[FANOUT / 64];
+        for (int depth = 0; depth < cutoff; depth++) {
+            if (depth == cutoff - 1) {
+                lastLevelFirstNode = denseNodes;
+            }
+            for (int node = levelStarts[depth]; node < levelStarts[depth + 1]; node++) {
+                long range = trie.childRange(node);
+                int first = BasicLouds.rangeFirst(range);
+                int end = BasicLouds.rangeEnd(range);
+                if (first == end && node != 0) {
+                    continue; // Лист - не плотный узел
+                }
+                Arrays.fill(labelMap, 0L);
+                Arrays.fill(childMap, 0L);
+                for (int child = first; child < end; child++) {
+                    char ch = trie.labels.get(child);
+                    labelMap[ch >>> 6] |= 1L << ch;
+                    // Внутренний ребёнок ниже последнего плотного уровня сам становится плотным узлом
+                    if (depth + 1 < cutoff && !trie.isLeaf(child)) {
+                        childMap[ch >>> 6] |= 1L << ch;
+                    }
+                }
+                for (int w = 0; w < labelMap.length; w++) {
+                    labels.appendBits(labelMap[w], 64);
+                    hasChild.appendBits(childMap[w], 64);
+                }
+                prefixKey.append(trie.isWordEnd(node));
+                denseNodes++;
+            }
+        }
+
+        // Разреженная часть: искусственный корень с узлами глубины cutoff и хвост строки LOUDS
+        int sparseRoots = cutoff < levels ? levelStarts[cutoff + 1] - levelStarts[cutoff] : 0;
+        int sparseNodes = trie.getNodeCount() - sparseBase;
+        BitVectorBuilder sparseBits = new BitVectorBuilder(2 * (sparseNodes + 1) + 1);
+        sparseBits.append(true).append(false).appendOnes(sparseRoots).append(false);
+        sparseBits.appendRange(trie.bits, trie.bits.select0(sparseBase) + 1, trie.bits.length());
+
+        char[] sparseLabels = new char[sparseNodes + 1];
+        for (int i = 0; i < sparseNodes; i++) {
+            sparseLabels[i + 1] = trie.labels.get(sparseBase + i);
+        }
+        BitVectorBuilder sparseWordEnds = new BitVectorBuilder(sparseNodes + 1);
+        sparseWordEnds.append(false).appendRange(trie.wordEnds, sparseBase, trie.getNodeCount());
+
+        TrieLouds sparse = new TrieLouds(sparseBits.build(), sparseLabels, sparseWordEnds.build());
+        return new HybridTrieLouds(cutoff, labels.build(), hasChild.build(), prefixKey.build(),
+                lastLevelFirstNode, sparseBase, sparse);
+    }
+
+    /**
+     * Номера первых узлов уровней; последний элемент - количество узлов
+     */
+    static int[] levelStarts(BasicLouds louds) {
+        List<Integer> starts = new ArrayList<>();
+        starts.add(0);
+        int start = 0;
+        int end = 1;
+        while (start < end) {
+            int nextStart = BasicLouds.rangeFirst(louds.childRange(start));
+            int nextEnd = BasicLouds.rangeEnd(louds.childRange(end - 1));
+            starts.add(end);
+            start = nextStart;
+            end = nextEnd;
+        }
+        int[] result = new int[starts.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = starts.get(i);
+        }
+        return result;
+    }
+
+    private static int depthOf(int[] levelStarts, int node) {
+        int depth = 0;
+        while (levelStarts[depth + 1] <= node) {
+            depth++;
+        }
+        return depth;
+    }
+
+    private static long countInternal(TrieLouds trie, int from, int to) {
+        long count = 0;
+        for (int node = from; node < to; node++) {
+            if (node == 0 || !trie.isLeaf(node)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * ========== МЕТОДЫ ДЛЯ ПРЕФИКСНОГО ДЕРЕВА ==========
+     */
+
+    /**
+     * Спуск по ключу.
+     *
+     * @return 1, если ключ закончился в узле - конце слова, 0 - в узле без слова, -1 - ключа нет в дереве
+     */
+    private int descend(String key) {
+        int pos = 0;
+        int sparseNode = 1; // Без плотных уровней корень дерева - единственный ребёнок искусственного корня
+
+        if (cutoff > 0) {
+            int node = 0;
+            while (true) {
+                if (pos == key.length()) {
+                    return densePrefixKey.get(node) ? 1 : 0;
+                }
+                char ch = key.charAt(pos++);
+                if (ch >= FANOUT) {
+                    return -1;
+                }
+                int slot = node * FANOUT + ch;
+                if (!denseLabels.get(slot)) {
+                    return -1; // Нет ребёнка с таким символом
+                }
+                if (node >= lastLevelFirstNode) {
+                    // Ребёнок последнего плотного уровня - корень разреженного леса
+                    sparseNode = denseLabels.rank1(slot) + 1 - sparseBase + 1; // Номер во всём дереве - 1 + номер ребра
+                    break;
+                }
+                if (!denseHasChild.get(slot)) {
+                    return pos == key.length() ? 1 : -1; // Лист - всегда конец слова
+                }
+                node = denseHasChild.rank1(slot) + 1;
+            }
+        }
+
+        while (pos < key.length()) {
+            sparseNode = sparse.findChildByChar(sparseNode, key.charAt(pos++));
+            if (sparseNode == -1) {
+                return -1;
+            }
+        }
+        return sparse.isWordEnd(sparseNode) ? 1 : 0;
+    }
+
+    /**
+     * Поиск слова в префиксном дереве
+     */
+    public boolean search(String word) {
+        return descend(word) == 1;
+    }
+
+    /**
+     * Проверить, есть ли слова с данным префиксом
+     */
+    public boolean startsWith(String prefix) {
+        return descend(prefix) != -1;
+    }
+
+    /**
+     * ========== РАЗМЕР В ПАМЯТИ ==========
+     */
+
+    /**
+     * Количество плотных уровней
+     */
+    public int getCutoff() {
+        return cutoff;
+    }
+
+    /**
+     * Размер компонентов в байтах: плотные карты и разреженная часть (с префиксом sparse.)
+     */
+    public Map<String, Long> memoryBreakdown() {
+        Map<String, Long> breakdown = new LinkedHashMap<>();
+        breakdown.put("denseLabels", denseLabels.sizeInBytes());
+        breakdown.put("denseHasChild", denseHasChild.sizeInBytes());
+        breakdown.put("densePrefixKey", densePrefixKey.sizeInBytes());
+        for (Map.Entry<String, Long> component : sparse.memoryBreakdown().entrySet()) {
+            breakdown.put("sparse." + component.getKey(), component.getValue());
+        }
+        return breakdown;
+    }
+
+    /**
+     * Полный размер структуры в байтах (сумма memoryBreakdown)
+     */
+    public long sizeInBytes() {
+        long size = 0;
+        for (long bytes : memoryBreakdown().values()) {
+            size += bytes;
+        }
+        return size;
+    }
+}
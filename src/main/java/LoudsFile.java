@@ -0,0 +1,238 @@
+import java.io.IOException;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Двоичный формат LOUDS для записи один раз и открытия через FileChannel.map без копирования.
+ *
+ * Формат (little-endian, все секции выровнены на 8 байт):
+ *  - заголовок: magic "LOUD", версия формата, вид структуры, количество узлов;
+ *  - секции, которые пишет сама структура (BasicLouds.writeSections): битовые векторы
+ *    (слова, каталог rank, выборки select), символы узлов и т.д.
+ * После открытия запросы выполняются прямо по отображённым буферам, поэтому запуск занимает O(1),
+ * а несколько JVM на одной машине используют общий page cache.
+ */
+public final class LoudsFile {
+
+    static final int MAGIC = 0x44554F4C;                            // "LOUD" в little-endian
+    static final int VERSION = 1;
+
+    static final int KIND_BASIC = 1;                                // BasicLouds: только структура дерева
+    static final int KIND_TRIE = 2;                                 // TrieLouds: структура, символы, концы слов
+    static final int KIND_PATRICIA = 3;                             // PatriciaTrieLouds: структура, метки, концы слов
+    static final int KIND_WEIGHTED = 4;                             // WeightedTrieLouds: TrieLouds, веса слов и поддеревьев
+
+    private static final int SMALL_REGION_BYTES = 4096;             // Небольшие области читаются, а не отображаются
+
+    private LoudsFile() {}
+
+    /**
+     * Записать структуру в файл (файл перезаписывается)
+     */
+    public static void write(BasicLouds louds, Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            Writer out = new Writer(ByteBuffer.allocate(1 << 16), channel);
+            writeTo(louds, out);
+            out.flush();
+        }
+    }
+
+    /**
+     * Открыть файл, отобразив его в память. Данные не копируются в кучу;
+     * отображение остаётся действительным и после закрытия канала и снимается в BasicLouds.close().
+     */
+    public static BasicLouds map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Reader in = new Reader(channel);
+            try {
+                BasicLouds louds = read(in);
+                louds.storage = in.storage;
+                return louds;
+            } catch (IOException | RuntimeException e) {
+                in.storage.close();
+                throw e;
+            }
+        }
+    }
+
+    static void writeTo(BasicLouds louds, Writer out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(louds.fileKind());
+        out.writeInt(louds.getNodeCount());
+        louds.writeSections(out);
+    }
+
+    static BasicLouds read(Reader in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Файл не является файлом LOUDS");
+        }
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Неподдерживаемая версия формата LOUDS: " + version);
+        }
+        int kind = in.readInt();
+        int nodeCount = in.readInt();
+
+        BasicLouds louds;
+        switch (kind) {
+            case KIND_BASIC:
+                louds = new BasicLouds(in);
+                break;
+            case KIND_TRIE:
+                louds = new TrieLouds(in);
+                break;
+            case KIND_PATRICIA:
+                louds = new PatriciaTrieLouds(in);
+                break;
+            case KIND_WEIGHTED:
+                louds = new WeightedTrieLouds(in);
+                break;
+            default:
+                throw new IOException("Неизвестный вид структуры LOUDS: " + kind);
+        }
+        if (louds.getNodeCount() != nodeCount) {
+            throw new IOException("Количество узлов не совпадает с заголовком");
+        }
+        return louds;
+    }
+
+    /**
+     * Последовательная запись секций через буфер в канал
+     */
+    static final class Writer {
+        private final ByteBuffer buffer;
+        private final FileChannel channel;
+        long position;
+
+        Writer(ByteBuffer buffer, FileChannel channel) {
+            this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+            this.channel = channel;
+        }
+
+        private void ensureRemaining(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        void writeInt(int value) throws IOException {
+            ensureRemaining(Integer.BYTES);
+            buffer.putInt(value);
+            position += Integer.BYTES;
+        }
+
+        void writeLong(long value) throws IOException {
+            ensureRemaining(Long.BYTES);
+            buffer.putLong(value);
+            position += Long.BYTES;
+        }
+
+        void writeLongs(LongBuffer values) throws IOException {
+            align();
+            for (int i = 0; i < values.capacity(); i++) {
+                writeLong(values.get(i));
+            }
+        }
+
+        void writeInts(IntBuffer values) throws IOException {
+            for (int i = 0; i < values.capacity(); i++) {
+                writeInt(values.get(i));
+            }
+        }
+
+        void writeChars(CharBuffer values) throws IOException {
+            for (int i = 0; i < values.capacity(); i++) {
+                ensureRemaining(Character.BYTES);
+                buffer.putChar(values.get(i));
+                position += Character.BYTES;
+            }
+        }
+
+        /**
+         * Дополнить нулями до границы 8 байт
+         */
+        void align() throws IOException {
+            while ((position & 7) != 0) {
+                ensureRemaining(1);
+                buffer.put((byte) 0);
+                position++;
+            }
+        }
+
+        void flush() throws IOException {
+            ((Buffer) buffer).flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            ((Buffer) buffer).clear();
+        }
+    }
+
+    /**
+     * Последовательное чтение секций из файла: крупные области отображаются в память
+     */
+    static final class Reader {
+        private final FileChannel channel;
+        private final OffHeapStorage storage = new OffHeapStorage(); // Отображённые области
+        private long position;
+
+        Reader(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Область [position, position + bytes) в порядке байт little-endian
+         */
+        private ByteBuffer region(int bytes) throws IOException {
+            if (position + bytes > channel.size()) {
+                throw new IOException("Неожиданный конец файла LOUDS");
+            }
+            ByteBuffer region;
+            if (bytes <= SMALL_REGION_BYTES) {
+                region = ByteBuffer.allocate(bytes);
+                while (region.hasRemaining()) {
+                    if (channel.read(region, position + region.position()) < 0) {
+                        throw new IOException("Неожиданный конец файла LOUDS");
+                    }
+                }
+                ((Buffer) region).flip();
+            } else {
+                region = storage.track(channel.map(FileChannel.MapMode.READ_ONLY, position, bytes));
+            }
+            position += bytes;
+            return region.order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        int readInt() throws IOException {
+            return region(Integer.BYTES).getInt(0);
+        }
+
+        LongBuffer readLongs(int count) throws IOException {
+            align();
+            return region(checkedSize(count, Long.BYTES)).asLongBuffer();
+        }
+
+        IntBuffer readInts(int count) throws IOException {
+            return region(checkedSize(count, Integer.BYTES)).asIntBuffer();
+        }
+
+        CharBuffer readChars(int count) throws IOException {
+            return region(checkedSize(count, Character.BYTES)).asCharBuffer();
+        }
+
+        void align() {
+            position = (position + 7) & ~7L;
+        }
+
+        private static int checkedSize(int count, int elementBytes) throws IOException {
+            if (count < 0 || (long) count * elementBytes > Integer.MAX_VALUE) {
+                throw new IOException("Некорректный размер секции LOUDS: " + count);
+            }
+            return count * elementBytes;
+        }
+    }
+}
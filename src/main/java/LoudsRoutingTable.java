@@ -0,0 +1,196 @@
+import java.util.*;
+
+/**
+ * Таблица маршрутизации на префиксном дереве LOUDS: поиск самого длинного совпадающего префикса.
+ *
+ * Префиксы хранятся как двоичные ключи из символов '0' и '1' (старший бит - первый символ),
+ * значение маршрута лежит в массиве по номеру слова (TrieLouds.lookupId). Поиск - один спуск
+ * от корня по битам адреса с запоминанием последнего узла - конца префикса.
+ * Маршрут по умолчанию (префикс длины 0) - пустое слово, его дерево хранить не умеет,
+ * поэтому он хранится отдельно.
+ *
+ * Первые stride бит ключа не проходятся по дереву, а берутся из таблицы на 2^stride элементов:
+ * узел, в который ведут эти биты, и последний пройденный по пути префикс. Верхние уровни таблицы
+ * маршрутов почти полные, и таблица заменяет самые частые шаги спуска (по select0 на шаг)
+ * одним обращением к массиву. Размер таблицы не превышает числа узлов дерева.
+ */
+public class LoudsRoutingTable<V> {
+
+    protected final TrieLouds trie;                                 // Префиксы как строки из '0' и '1'
+    protected final Object[] values;                                // Значение маршрута по номеру префикса
+    protected final V defaultRoute;                                 // Маршрут для префикса длины 0 (может быть null)
+
+    static final int MAX_STRIDE = 16;                               // Наибольшее число бит, разрешаемых таблицей
+
+    protected final int stride;                                     // Число первых бит ключа, разрешаемых таблицей
+    protected final int[] strideNodes;                              // Узел после первых stride бит или -1, если пути нет
+    protected final int[] strideMatches;                            // Номер последнего префикса на этом пути или -1
+
+    private LoudsRoutingTable(TrieLouds trie, Object[] values, V defaultRoute) {
+        this.trie = trie;
+        this.values = values;
+        this.defaultRoute = defaultRoute;
+
+        // Наибольший шаг, при котором таблица не больше дерева
+        int stride = 0;
+        while (stride < MAX_STRIDE && 2 << stride <= trie.getNodeCount()) {
+            stride++;
+        }
+        this.stride = stride;
+        this.strideNodes = new int[1 << stride];
+        this.strideMatches = new int[1 << stride];
+        fillStride(0, 0, 0, -1);
+    }
+
+    /**
+     * Заполнить элементы таблицы с началом пути bits длины depth, ведущего в узел node
+     */
+    private void fillStride(int node, int bits, int depth, int match) {
+        if (node != 0 && trie.isWordEnd(node)) {
+            match = trie.wordEnds.rank1(node);
+        }
+        if (depth == stride) {
+            strideNodes[bits] = node;
+            strideMatches[bits] = match;
+            return;
+        }
+        for (int bit = 0; bit <= 1; bit++) {
+            int child = trie.findChildByChar(node, bit == 1 ? '1' : '0');
+            int childBits = (bits << 1) | bit;
+            if (child != -1) {
+                fillStride(child, childBits, depth + 1, match);
+            } else {
+                // Пути нет: все продолжения заканчиваются на последнем пройденном префиксе
+                int from = childBits << (stride - depth - 1);
+                int to = (childBits + 1) << (stride - depth - 1);
+                Arrays.fill(strideNodes, from, to, -1);
+                Arrays.fill(strideMatches, from, to, match);
+            }
+        }
+    }
+
+    /**
+     * Построитель таблицы: повторное добавление префикса заменяет значение
+     */
+    public static class Builder<V> {
+        private final TreeMap<String, V> routes = new TreeMap<>();
+        private V defaultRoute;
+
+        /**
+         * Добавить префикс из старших length бит 64-битного ключа (0 <= length <= 64)
+         */
+        public Builder<V> add(long prefix, int length, V value) {
+            if (length < 0 || length > Long.SIZE) {
+                throw new IllegalArgumentException("Длина префикса должна быть от 0 до 64: " + length);
+            }
+            if (length == 0) {
+                defaultRoute = value;
+                return this;
+            }
+            char[] key = new char[length];
+            for (int i = 0; i < length; i++) {
+                key[i] = (prefix << i) < 0 ? '1' : '0';
+            }
+            routes.put(new String(key), value);
+            return this;
+        }
+
+        /**
+         * Добавить префикс IPv4 из старших length бит адреса (0 <= length <= 32)
+         */
+        public Builder<V> addIpv4(int address, int length, V value) {
+            if (length < 0 || length > Integer.SIZE) {
+                throw new IllegalArgumentException("Длина префикса IPv4 должна быть от 0 до 32: " + length);
+            }
+            return add((long) address << 32, length, value);
+        }
+
+        /**
+         * Добавить префикс IPv4 в записи CIDR, например "10.0.0.0/8"
+         */
+        public Builder<V> addCidr(String cidr, V value) {
+            int slash = cidr.indexOf('/');
+            if (slash == -1) {
+                throw new IllegalArgumentException("Ожидается запись вида a.b.c.d/длина: " + cidr);
+            }
+            return addIpv4(parseIpv4(cidr.substring(0, slash)), Integer.parseInt(cidr.substring(slash + 1)), value);
+        }
+
+        public LoudsRoutingTable<V> build() {
+            TrieLouds trie = TrieLouds.buildFromSortedWords(routes.keySet().iterator());
+            Object[] values = new Object[trie.getWordCount()];
+            for (Map.Entry<String, V> route : routes.entrySet()) {
+                values[trie.lookupId(route.getKey())] = route.getValue();
+            }
+            return new LoudsRoutingTable<>(trie, values, defaultRoute);
+        }
+    }
+
+    /**
+     * Адрес IPv4 из записи a.b.c.d
+     */
+    public static int parseIpv4(String address) {
+        String[] parts = address.split("\\.");
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Некорректный адрес IPv4: " + address);
+        }
+        int result = 0;
+        for (String part : parts) {
+            int octet = Integer.parseInt(part);
+            if (octet < 0 || octet > 255) {
+                throw new IllegalArgumentException("Некорректный адрес IPv4: " + address);
+            }
+            result = (result << 8) | octet;
+        }
+        return result;
+    }
+
+    /**
+     * ========== ПОИСК МАРШРУТА ==========
+     */
+
+    /**
+     * Значение самого длинного префикса, совпадающего с адресом IPv4
+     * (маршрут по умолчанию, если совпадений нет; null, если нет и его)
+     */
+    public V longestPrefixMatch(int ipv4) {
+        return longestPrefixMatch((long) ipv4 << 32, Integer.SIZE);
+    }
+
+    /**
+     * Значение самого длинного префикса, совпадающего с 64-битным ключом
+     */
+    public V longestPrefixMatch(long key) {
+        return longestPrefixMatch(key, Long.SIZE);
+    }
+
+    @SuppressWarnings("unchecked")
+    private V longestPrefixMatch(long key, int bits) {
+        int entry = stride == 0 ? 0 : (int) (key >>> (Long.SIZE - stride));
+        int node = strideNodes[entry];
+        int match = strideMatches[entry]; // Номер последнего пройденного префикса
+        if (node != -1) {
+            int matchNode = -1;
+            for (int i = stride; i < bits; i++) {
+                node = trie.findChildByChar(node, (key << i) < 0 ? '1' : '0');
+                if (node == -1) {
+                    break;
+                }
+                if (trie.isWordEnd(node)) {
+                    matchNode = node;
+                }
+            }
+            if (matchNode != -1) {
+                match = trie.wordEnds.rank1(matchNode);
+            }
+        }
+        return match == -1 ? defaultRoute : (V) values[match];
+    }
+
+    /**
+     * Количество префиксов (без маршрута по умолчанию)
+     */
+    public int size() {
+        return values.length;
+    }
+}
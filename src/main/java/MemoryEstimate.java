@@ -0,0 +1,49 @@
+import java.util.List;
+
+/**
+ * Оценка размера объектов кучи для 64-битной JVM со сжатыми указателями (заголовок объекта 12 байт,
+ * заголовок массива 16 байт, ссылка 4 байта, выравнивание на 8 байт) и компактными строками Java 9+.
+ * Размеры буферов LOUDS считаются точно по их ёмкости, эта оценка нужна только для объектных структур.
+ */
+final class MemoryEstimate {
+
+    static final int OBJECT_HEADER = 12;
+    static final int ARRAY_HEADER = 16;
+    static final int REFERENCE = 4;
+
+    private MemoryEstimate() {}
+
+    static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    /**
+     * Массив ссылок
+     */
+    static long referenceArray(int length) {
+        return align(ARRAY_HEADER + (long) length * REFERENCE);
+    }
+
+    /**
+     * Строка: объект String (hash, coder, ссылка на массив) и массив байт LATIN1 или UTF-16
+     */
+    static long string(String value) {
+        boolean latin1 = true;
+        for (int i = 0; i < value.length() && latin1; i++) {
+            latin1 = value.charAt(i) < 256;
+        }
+        long valueBytes = latin1 ? value.length() : 2L * value.length();
+        return align(OBJECT_HEADER + 4 + 1 + REFERENCE) + align(ARRAY_HEADER + valueBytes);
+    }
+
+    /**
+     * Строки списка вместе с массивом ссылок ArrayList (без учёта запаса ёмкости)
+     */
+    static long stringList(List<String> values) {
+        long bytes = referenceArray(values.size());
+        for (String value : values) {
+            bytes += value == null ? 0 : string(value);
+        }
+        return bytes;
+    }
+}
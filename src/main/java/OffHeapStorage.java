@@ -0,0 +1,110 @@
+import java.io.Closeable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Память вне кучи, занятая структурой LOUDS: прямые буферы (ByteBuffer.allocateDirect)
+ * и отображённые в память области файла.
+ *
+ * Сборщик мусора не просматривает содержимое таких буферов. close() освобождает их сразу,
+ * не дожидаясь сборки мусора; после этого обращаться к представлениям буферов нельзя.
+ */
+final class OffHeapStorage implements Closeable {
+
+    private static final Releaser RELEASER = new Releaser();
+
+    private final List<ByteBuffer> buffers = new ArrayList<>();     // Исходные буферы (не представления)
+
+    /**
+     * Учесть буфер (например, отображённую область файла) для освобождения в close()
+     */
+    synchronized ByteBuffer track(ByteBuffer buffer) {
+        buffers.add(buffer);
+        return buffer;
+    }
+
+    private ByteBuffer allocate(int elements, int elementBytes) {
+        return track(ByteBuffer.allocateDirect(Math.multiplyExact(elements, elementBytes))).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Копия в прямой буфер (позиция копии - 0, как у исходных буферов, чтобы относительные
+     * операции вроде subSequence работали так же)
+     */
+    LongBuffer copyOf(LongBuffer source) {
+        LongBuffer copy = allocate(source.capacity(), Long.BYTES).asLongBuffer();
+        copy.put(source.duplicate());
+        ((Buffer) copy).rewind();
+        return copy;
+    }
+
+    IntBuffer copyOf(IntBuffer source) {
+        IntBuffer copy = allocate(source.capacity(), Integer.BYTES).asIntBuffer();
+        copy.put(source.duplicate());
+        ((Buffer) copy).rewind();
+        return copy;
+    }
+
+    CharBuffer copyOf(CharBuffer source) {
+        CharBuffer copy = allocate(source.capacity(), Character.BYTES).asCharBuffer();
+        copy.put(source.duplicate());
+        ((Buffer) copy).rewind();
+        return copy;
+    }
+
+    /**
+     * Освободить все буферы. Повторный вызов ничего не делает.
+     */
+    @Override
+    public synchronized void close() {
+        for (ByteBuffer buffer : buffers) {
+            RELEASER.release(buffer);
+        }
+        buffers.clear();
+    }
+
+    /**
+     * Немедленное освобождение прямых и отображённых буферов. Публичного API для этого нет,
+     * поэтому используется Unsafe.invokeCleaner (Java 9+) или DirectBuffer.cleaner() (Java 8).
+     * Если ни один способ недоступен, буферы освободит сборщик мусора.
+     */
+    private static final class Releaser {
+        private Object unsafe;
+        private Method invokeCleaner;
+
+        Releaser() {
+            try {
+                Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+                Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+                theUnsafe.setAccessible(true);
+                unsafe = theUnsafe.get(null);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                invokeCleaner = null; // Java 8: используем cleaner() самого буфера
+            }
+        }
+
+        void release(ByteBuffer buffer) {
+            if (!buffer.isDirect()) {
+                return;
+            }
+            try {
+                if (invokeCleaner != null) {
+                    invokeCleaner.invoke(unsafe, buffer);
+                } else {
+                    Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+                    cleanerMethod.setAccessible(true);
+                    Object cleaner = cleanerMethod.invoke(buffer);
+                    if (cleaner != null) {
+                        cleaner.getClass().getMethod("clean").invoke(cleaner);
+                    }
+                }
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                // Освобождение останется за сборщиком мусора
+            }
+        }
+    }
+}
@@ -0,0 +1,159 @@
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Параллельное построение префиксного дерева LOUDS на нескольких ядрах.
+ *
+ * Отсортированные слова делятся на части по первому символу (слова с одним первым символом
+ * всегда попадают в одну часть). Каждая часть строится своим TrieLoudsBuilder в ForkJoinPool.
+ * Узлы уровня в порядке BFS упорядочены лексикографически, а части идут по возрастанию первого
+ * символа, поэтому уровень d всего дерева - это уровни d частей подряд. Уровень 0 частей содержит
+ * только их общий корень: в итоговой строке это один 0 и единицы всех детей корня.
+ * Склейка уровней выполняется последовательно копированием слов битовых векторов.
+ */
+public class ParallelTrieLoudsBuilder {
+
+    private static final int PARTITIONS_PER_THREAD = 4;             // Запас частей для выравнивания нагрузки
+
+    private ParallelTrieLoudsBuilder() {}
+
+    /**
+     * Построение из произвольного списка слов на parallelism потоках
+     */
+    public static TrieLouds buildFromWordList(List<String> words, int parallelism) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return buildFromWordList(words, pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Построение из произвольного списка слов в переданном пуле (сортировка тоже выполняется в нём).
+     * Пустые слова и null пропускаются, повторы допускаются.
+     */
+    public static TrieLouds buildFromWordList(List<String> words, ForkJoinPool pool) {
+        String[] sorted = words.stream().filter(word -> word != null && !word.isEmpty()).toArray(String[]::new);
+        join(pool.submit(() -> Arrays.parallelSort(sorted))); // Внутри пула parallelSort использует его потоки
+        return buildFromSortedWords(Arrays.asList(sorted), pool);
+    }
+
+    /**
+     * Построение из лексикографически отсортированного списка непустых слов (повторы допускаются)
+     */
+    public static TrieLouds buildFromSortedWords(List<String> sortedWords, ForkJoinPool pool) {
+        List<Callable<TrieLoudsBuilder>> tasks = new ArrayList<>();
+        for (int[] range : partition(sortedWords, pool.getParallelism() * PARTITIONS_PER_THREAD)) {
+            // Порядок внутри части проверяет TrieLoudsBuilder, здесь - на стыке частей
+            if (range[0] > 0 && sortedWords.get(range[0] - 1).compareTo(sortedWords.get(range[0])) > 0) {
+                throw new IllegalArgumentException("Слова должны быть отсортированы: '" + sortedWords.get(range[0])
+                        + "' после '" + sortedWords.get(range[0] - 1) + "'");
+            }
+            List<String> part = sortedWords.subList(range[0], range[1]);
+            tasks.add(() -> new TrieLoudsBuilder().addAll(part.iterator()));
+        }
+
+        List<TrieLoudsBuilder> builders = new ArrayList<>();
+        for (Future<TrieLoudsBuilder> future : pool.invokeAll(tasks)) {
+            builders.add(join(future));
+        }
+        return stitch(builders);
+    }
+
+    /**
+     * Диапазоны [начало, конец) примерно равного размера, границы - только на смене первого символа
+     */
+    static List<int[]> partition(List<String> sortedWords, int targetParts) {
+        List<int[]> ranges = new ArrayList<>();
+        int n = sortedWords.size();
+        int start = 0;
+        for (int part = 1; part <= targetParts && start < n; part++) {
+            int target = (int) ((long) n * part / targetParts);
+            if (target <= start) {
+                continue;
+            }
+            // Сдвигаем границу к концу группы слов с тем же первым символом
+            int end = target == n ? n : firstIndexAfter(sortedWords, target - 1, n, sortedWords.get(target - 1).charAt(0));
+            ranges.add(new int[]{start, end});
+            start = end;
+        }
+        return ranges;
+    }
+
+    /**
+     * Первый индекс в [from, to), где первый символ больше ch (бинарный поиск по отсортированным словам)
+     */
+    private static int firstIndexAfter(List<String> sortedWords, int from, int to, char ch) {
+        int left = from;
+        int right = to;
+        while (left < right) {
+            int mid = (left + right) >>> 1;
+            if (sortedWords.get(mid).charAt(0) <= ch) {
+                left = mid + 1;
+            } else {
+                right = mid;
+            }
+        }
+        return left;
+    }
+
+    /**
+     * Склеить уровни частей в одну битовую строку LOUDS, массив символов и вектор концов слов
+     */
+    static TrieLouds stitch(List<TrieLoudsBuilder> builders) {
+        int depthCount = 1;
+        int nodeCount = 1; // Общий корень
+        int rootDegree = 0;
+        for (TrieLoudsBuilder builder : builders) {
+            depthCount = Math.max(depthCount, builder.levels.size());
+            for (int depth = 1; depth < builder.levels.size(); depth++) {
+                nodeCount += builder.levels.get(depth).size;
+            }
+            if (builder.levels.size() > 1) {
+                rootDegree += builder.levels.get(1).size;
+            }
+        }
+
+        BitVectorBuilder bits = new BitVectorBuilder(2 * nodeCount + 1);
+        BitVectorBuilder wordEnds = new BitVectorBuilder(nodeCount);
+        char[] labels = new char[nodeCount];
+
+        bits.append(true).append(false).appendOnes(rootDegree); // Искусственный корень и общий корень
+        wordEnds.append(false);
+        int offset = 1;
+        for (int depth = 1; depth < depthCount; depth++) {
+            for (TrieLoudsBuilder builder : builders) {
+                if (depth >= builder.levels.size()) {
+                    continue;
+                }
+                TrieLoudsBuilder.Level level = builder.levels.set(depth, null); // Уровень больше не нужен
+                bits.appendAll(level.bits);
+                wordEnds.appendAll(level.wordEnds);
+                System.arraycopy(level.labels, 0, labels, offset, level.size);
+                offset += level.size;
+            }
+        }
+        bits.append(false);
+
+        return new TrieLouds(bits.build(), labels, wordEnds.build());
+    }
+
+    private static <T> T join(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Построение прервано");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
@@ -0,0 +1,337 @@
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Префиксное дерево LOUDS со сжатием путей (Patricia).
+ *
+ * Цепочки узлов с единственным ребёнком, не являющихся концом слова, схлопываются в один узел,
+ * метка которого - строка, а не символ. Метки всех узлов лежат подряд в общем массиве символов,
+ * узел хранит только смещение своей метки. Число узлов (и бит LOUDS), а также шагов поиска
+ * уменьшается до числа ветвлений и концов слов.
+ * save() и toOffHeap() переносят структуру дерева вместе с метками и концами слов.
+ */
+public class PatriciaTrieLouds extends BasicLouds {
+
+    protected CharBuffer labelArena;                                // Метки всех узлов подряд
+    protected IntBuffer labelOffsets;                               // Метка узла i - labelArena[labelOffsets[i], labelOffsets[i + 1])
+    protected SuccinctBitVector wordEnds;                           // Бит i установлен, если узел i - конец слова
+
+    private PatriciaTrieLouds() {
+        super();
+    }
+
+    /**
+     * Чтение дерева из файла LOUDS: метки, их смещения и концы слов остаются в отображённой памяти
+     */
+    PatriciaTrieLouds(LoudsFile.Reader in) throws IOException {
+        super(in);
+        int arenaLength = in.readInt();
+        int offsetCount = in.readInt();
+        labelOffsets = in.readInts(offsetCount);
+        labelArena = in.readChars(arenaLength);
+        in.align();
+        wordEnds = SuccinctBitVector.read(in);
+        if (offsetCount != nodeCount + 1 || wordEnds.length() != nodeCount) {
+            throw new IOException("Размеры секций не совпадают с количеством узлов");
+        }
+    }
+
+    /**
+     * Открыть дерево, ранее сохранённое методом save, через отображение файла в память
+     */
+    public static PatriciaTrieLouds map(Path path) throws IOException {
+        BasicLouds louds = LoudsFile.map(path);
+        if (!(louds instanceof PatriciaTrieLouds)) {
+            louds.close();
+            throw new IOException("Файл не содержит дерево Patricia LOUDS: " + path);
+        }
+        return (PatriciaTrieLouds) louds;
+    }
+
+    /**
+     * Построение дерева из произвольного списка слов (слова сортируются, повторы и пустые слова пропускаются)
+     */
+    public static PatriciaTrieLouds buildFromWordList(List<String> words) {
+        TreeSet<String> unique = new TreeSet<>();
+        for (String word : words) {
+            if (word != null && !word.isEmpty()) {
+                unique.add(word);
+            }
+        }
+        return build(new ArrayList<>(unique));
+    }
+
+    /**
+     * Построение обходом в ширину по диапазонам отсортированных слов: узлу соответствует диапазон слов
+     * с общим префиксом, дети - группы диапазона по следующему символу. Метка ребёнка продолжается
+     * до наибольшего общего префикса группы (для отсортированного диапазона это общий префикс
+     * первого и последнего слова).
+     */
+    private static PatriciaTrieLouds build(List<String> words) {
+        BitVectorBuilder bits = new BitVectorBuilder();
+        BitVectorBuilder wordEnds = new BitVectorBuilder();
+        StringBuilder arena = new StringBuilder();
+        int[] offsets = new int[16];
+        int nodeCount = 0;
+
+        bits.append(true).append(false);  // Искусственный корень
+
+        // Элемент очереди: {начало диапазона, конец диапазона, начало метки, длина префикса узла}
+        Deque<int[]> queue = new ArrayDeque<>();
+        queue.add(new int[]{0, words.size(), 0, 0});
+        List<int[]> children = new ArrayList<>();
+
+        // BFS обход
+        while (!queue.isEmpty()) {
+            int[] node = queue.poll();
+            int lo = node[0];
+            int hi = node[1];
+            int depth = node[3];
+
+            if (nodeCount + 1 >= offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            offsets[nodeCount++] = arena.length();
+            if (lo < hi) {
+                arena.append(words.get(lo), node[2], depth); // Метка узла
+            }
+
+            // Самое короткое слово диапазона идёт первым; если оно равно префиксу, узел - конец слова
+            boolean wordEnd = lo < hi && words.get(lo).length() == depth;
+            wordEnds.append(wordEnd);
+
+            // Группы слов по символу в позиции depth
+            children.clear();
+            int i = wordEnd ? lo + 1 : lo;
+            while (i < hi) {
+                char ch = words.get(i).charAt(depth);
+                int j = i + 1;
+                while (j < hi && words.get(j).charAt(depth) == ch) {
+                    j++;
+                }
+                children.add(new int[]{i, j, depth, commonPrefixLength(words.get(i), words.get(j - 1))});
+                i = j;
+            }
+
+            // Добавляем единицы по количеству потомков и один ноль
+            bits.appendOnes(children.size()).append(false);
+            queue.addAll(children);
+        }
+        offsets[nodeCount] = arena.length();
+
+        PatriciaTrieLouds trie = new PatriciaTrieLouds();
+        trie.labelArena = CharBuffer.wrap(arena.toString().toCharArray());
+        trie.labelOffsets = IntBuffer.wrap(Arrays.copyOf(offsets, nodeCount + 1));
+        trie.bits = bits.build();
+        trie.wordEnds = wordEnds.build();
+        trie.nodeCount = nodeCount;
+        trie.totalBits = trie.bits.length();
+        return trie;
+    }
+
+    private static int commonPrefixLength(String a, String b) {
+        int limit = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < limit && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * ========== МЕТОДЫ ДЛЯ ПРЕФИКСНОГО ДЕРЕВА ==========
+     */
+
+    /**
+     * Длина метки узла
+     */
+    public int labelLength(int nodeNumber) {
+        return labelOffsets.get(nodeNumber + 1) - labelOffsets.get(nodeNumber);
+    }
+
+    /**
+     * Получить данные узла (метку узла)
+     */
+    @Override
+    public String getNodeData(int nodeNumber) {
+        int offset = labelOffsets.get(nodeNumber);
+        return labelArena.subSequence(offset, offset + labelLength(nodeNumber)).toString();
+    }
+
+    /**
+     * Проверить, является ли узел концом слова
+     */
+    public boolean isWordEnd(int nodeNumber) {
+        return wordEnds.get(nodeNumber);
+    }
+
+    /**
+     * Найти дочерний узел, метка которого начинается с символа ch (метки детей различаются первым символом)
+     */
+    public int findChildByChar(int nodeNumber, char ch) {
+        long range = childRange(nodeNumber);
+
+        // Бинарный поиск по первым символам меток детей
+        int left = rangeFirst(range);
+        int right = rangeEnd(range) - 1;
+        while (left <= right) {
+            int mid = (left + right) >>> 1;
+            char childChar = labelArena.get(labelOffsets.get(mid));
+            if (childChar == ch) {
+                return mid;
+            } else if (childChar < ch) {
+                left = mid + 1;
+            } else {
+                right = mid - 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Спуск по ключу от корня.
+     *
+     * @return номер узла, на котором закончился ключ, или -1. Если ключ закончился посреди метки
+     * и partial = true, возвращается узел этой метки, иначе -1.
+     */
+    private int descend(String key, boolean partial) {
+        int currentNode = 0;
+        int pos = 0;
+        while (pos < key.length()) {
+            int child = findChildByChar(currentNode, key.charAt(pos));
+            if (child == -1) {
+                return -1;
+            }
+            int offset = labelOffsets.get(child);
+            int length = labelLength(child);
+            int matched = 1; // Первый символ совпал при поиске ребёнка
+            while (matched < length && pos + matched < key.length()
+                    && labelArena.get(offset + matched) == key.charAt(pos + matched)) {
+                matched++;
+            }
+            if (matched < length) {
+                // Ключ закончился внутри метки или разошёлся с ней
+                return partial && pos + matched == key.length() ? child : -1;
+            }
+            pos += length;
+            currentNode = child;
+        }
+        return currentNode;
+    }
+
+    /**
+     * Поиск слова в префиксном дереве
+     */
+    public boolean search(String word) {
+        int node = descend(word, false);
+        return node != -1 && isWordEnd(node);
+    }
+
+    /**
+     * Проверить, есть ли слова с данным префиксом
+     */
+    public boolean startsWith(String prefix) {
+        return descend(prefix, true) != -1;
+    }
+
+    /**
+     * ========== РАЗМЕР В ПАМЯТИ ==========
+     */
+
+    @Override
+    public Map<String, Long> memoryBreakdown() {
+        Map<String, Long> breakdown = super.memoryBreakdown();
+        breakdown.put("labels", (long) labelArena.capacity() * Character.BYTES);        // Метки узлов подряд
+        breakdown.put("labelOffsets", (long) labelOffsets.capacity() * Integer.BYTES);  // Смещения меток
+        breakdown.put("wordEnds", wordEnds.bitsBytes());                             // Признаки конца слова
+        breakdown.put("wordEndsIndex", wordEnds.rankDirectoryBytes() + wordEnds.selectSamplesBytes());
+        return breakdown;
+    }
+
+    /**
+     * ========== ХРАНЕНИЕ ВНЕ КУЧИ И ЗАПИСЬ В ФАЙЛ ==========
+     */
+
+    /**
+     * Копия дерева, у которой битовая строка, метки, их смещения и концы слов лежат вне кучи
+     */
+    @Override
+    public PatriciaTrieLouds toOffHeap() {
+        OffHeapStorage offHeap = new OffHeapStorage();
+        PatriciaTrieLouds copy = new PatriciaTrieLouds();
+        copy.bits = bits.copyTo(offHeap);
+        copy.nodeCount = nodeCount;
+        copy.totalBits = totalBits;
+        copy.labelArena = offHeap.copyOf(labelArena);
+        copy.labelOffsets = offHeap.copyOf(labelOffsets);
+        copy.wordEnds = wordEnds.copyTo(offHeap);
+        copy.storage = offHeap;
+        return copy;
+    }
+
+    @Override
+    public void close() {
+        if (storage != null) {
+            labelArena = null;
+            labelOffsets = null;
+            wordEnds = null;
+        }
+        super.close();
+    }
+
+    @Override
+    protected int fileKind() {
+        return LoudsFile.KIND_PATRICIA;
+    }
+
+    @Override
+    protected void writeSections(LoudsFile.Writer out) throws IOException {
+        super.writeSections(out);
+        out.writeInt(labelArena.capacity());
+        out.writeInt(labelOffsets.capacity());
+        out.writeInts(labelOffsets);
+        out.writeChars(labelArena);
+        out.align();
+        wordEnds.writeTo(out);
+    }
+
+    /**
+     * Количество слов в дереве
+     */
+    public int getWordCount() {
+        return wordEnds.countOnes();
+    }
+
+    /**
+     * Размер структуры в битах на слово
+     */
+    public double bitsPerKey() {
+        return sizeInBytes() * 8.0 / getWordCount();
+    }
+
+    /**
+     * Получить все слова в дереве в лексикографическом порядке
+     */
+    public List<String> getAllWords() {
+        List<String> words = new ArrayList<>();
+        collectWords(0, new StringBuilder(), words);
+        return words;
+    }
+
+    private void collectWords(int nodeNumber, StringBuilder currentWord, List<String> words) {
+        int length = currentWord.length();
+        int offset = labelOffsets.get(nodeNumber);
+        currentWord.append(labelArena, offset, offset + labelLength(nodeNumber));
+        if (isWordEnd(nodeNumber)) {
+            words.add(currentWord.toString());
+        }
+        long range = childRange(nodeNumber);
+        for (int child = rangeFirst(range); child < rangeEnd(range); child++) {
+            collectWords(child, currentWord, words);
+        }
+        currentWord.setLength(length);
+    }
+}
@@ -0,0 +1,361 @@
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+
+/**
+ * Неизменяемый битовый вектор с поддержкой rank за O(1) и select почти за O(1)
+ *
+ * Биты хранятся упакованными в массив long (бит i - это бит (i % 64) слова i / 64).
+ * Для rank строится двухуровневый каталог: на каждый суперблок из 2048 бит (32 слова)
+ * приходится одно 64-битное значение, в котором хранятся
+ *  - старшие 32 бита: количество единиц до начала суперблока;
+ *  - три 10-битных поля: количество единиц в первых трёх блоках по 512 бит суперблока.
+ * Дополнительная память каталога - 64 бита на 2048 бит, т.е. ~3%.
+ * Внутри блока оставшиеся единицы досчитываются через Long.bitCount (не более 8 слов).
+ *
+ * Для select хранятся выборки: позиция каждой 4096-й единицы и каждого 4096-го нуля (~1% памяти).
+ * Поиск k-го бита: выборка задает диапазон суперблоков, в нём бинарный поиск по каталогу rank,
+ * затем перебор блоков и слов суперблока и select внутри слова без циклов по битам (broadword).
+ *
+ * Массивы хранятся в LongBuffer/IntBuffer: в куче это обёртки над long[]/int[], а при загрузке
+ * из файла (LoudsFile) - представления отображённой в память области без копирования.
+ */
+public class SuccinctBitVector {
+
+    static final int WORD_BITS_LOG = 6;                             // 64 бита в слове
+    static final int BLOCK_BITS_LOG = 9;                            // 512 бит в блоке
+    static final int SUPERBLOCK_BITS_LOG = 11;                      // 2048 бит в суперблоке
+    static final int WORDS_PER_BLOCK = 1 << (BLOCK_BITS_LOG - WORD_BITS_LOG);
+    static final int WORDS_PER_SUPERBLOCK = 1 << (SUPERBLOCK_BITS_LOG - WORD_BITS_LOG);
+    static final int SELECT_SAMPLE_LOG = 12;                        // Выборка каждого 4096-го бита для select
+
+    private static final long ONES_STEP_4 = 0x1111111111111111L;
+    private static final long ONES_STEP_8 = 0x0101010101010101L;
+    private static final long MSBS_STEP_8 = 0x80L * ONES_STEP_8;
+    private static final byte[] SELECT_IN_BYTE = buildSelectInByte();
+
+    protected final LongBuffer words;                               // Упакованные биты
+    protected final int length;                                     // Длина вектора в битах
+    protected final LongBuffer rankDirectory;                       // Каталог суперблоков для rank
+    protected final int onesCount;                                  // Общее количество единиц
+    protected final IntBuffer select1Samples;                       // Позиции каждой 4096-й единицы
+    protected final IntBuffer select0Samples;                       // Позиции каждого 4096-го нуля
+
+    /**
+     * Построение вектора по упакованным словам (лишние слова отбрасываются, недостающие считаются нулевыми)
+     */
+    public SuccinctBitVector(long[] words, int length) {
+        this(checkLength(words, length).build());
+    }
+
+    private SuccinctBitVector(SuccinctBitVector other) {
+        this(other.words, other.length, other.rankDirectory, other.onesCount, other.select1Samples, other.select0Samples);
+    }
+
+    /**
+     * Вектор из готовых слов, каталога rank и выборок select (см. BitVectorBuilder)
+     */
+    SuccinctBitVector(long[] words, int length, long[] rankDirectory, int onesCount,
+                      int[] select1Samples, int[] select0Samples) {
+        this(LongBuffer.wrap(words), length, LongBuffer.wrap(rankDirectory), onesCount,
+                IntBuffer.wrap(select1Samples), IntBuffer.wrap(select0Samples));
+    }
+
+    SuccinctBitVector(LongBuffer words, int length, LongBuffer rankDirectory, int onesCount,
+                      IntBuffer select1Samples, IntBuffer select0Samples) {
+        this.words = words;
+        this.length = length;
+        this.rankDirectory = rankDirectory;
+        this.onesCount = onesCount;
+        this.select1Samples = select1Samples;
+        this.select0Samples = select0Samples;
+    }
+
+    /**
+     * Чтение вектора из секции файла LOUDS (без копирования данных)
+     */
+    static SuccinctBitVector read(LoudsFile.Reader in) throws IOException {
+        int length = in.readInt();
+        int onesCount = in.readInt();
+        int wordCount = in.readInt();
+        int directorySize = in.readInt();
+        int select1Count = in.readInt();
+        int select0Count = in.readInt();
+        if (length < 0 || onesCount < 0 || onesCount > length || wordCount != (length + 63) >>> WORD_BITS_LOG
+                || directorySize != (wordCount + WORDS_PER_SUPERBLOCK - 1) / WORDS_PER_SUPERBLOCK + 1) {
+            throw new IOException("Повреждённая секция битового вектора");
+        }
+        LongBuffer words = in.readLongs(wordCount);
+        LongBuffer rankDirectory = in.readLongs(directorySize);
+        IntBuffer select1Samples = in.readInts(select1Count);
+        IntBuffer select0Samples = in.readInts(select0Count);
+        in.align();
+        return new SuccinctBitVector(words, length, rankDirectory, onesCount, select1Samples, select0Samples);
+    }
+
+    /**
+     * Запись вектора в секцию файла LOUDS
+     */
+    void writeTo(LoudsFile.Writer out) throws IOException {
+        out.writeInt(length);
+        out.writeInt(onesCount);
+        out.writeInt(words.capacity());
+        out.writeInt(rankDirectory.capacity());
+        out.writeInt(select1Samples.capacity());
+        out.writeInt(select0Samples.capacity());
+        out.writeLongs(words);
+        out.writeLongs(rankDirectory);
+        out.writeInts(select1Samples);
+        out.writeInts(select0Samples);
+        out.align();
+    }
+
+    /**
+     * Копия вектора вне кучи
+     */
+    SuccinctBitVector copyTo(OffHeapStorage storage) {
+        return new SuccinctBitVector(storage.copyOf(words), length, storage.copyOf(rankDirectory), onesCount,
+                storage.copyOf(select1Samples), storage.copyOf(select0Samples));
+    }
+
+    private static BitVectorBuilder checkLength(long[] words, int length) {
+        if (length < 0) {
+            throw new IllegalArgumentException("Длина битового вектора не может быть отрицательной: " + length);
+        }
+        return BitVectorBuilder.of(words, length);
+    }
+
+    /**
+     * Таблица: позиция r-й (с нуля) единицы в байте b хранится по индексу b | (r << 8)
+     */
+    private static byte[] buildSelectInByte() {
+        byte[] table = new byte[256 * 8];
+        for (int b = 0; b < 256; b++) {
+            int r = 0;
+            for (int bit = 0; bit < 8; bit++) {
+                if ((b & (1 << bit)) != 0) {
+                    table[b | (r++ << 8)] = (byte) bit;
+                }
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Позиция r-й (с нуля) единицы в слове, r < Long.bitCount(x).
+     * Параллельно считаются префиксные суммы единиц по байтам, сравнением с r находится нужный байт,
+     * внутри байта позиция берётся из таблицы.
+     */
+    static int selectInWord(long x, int r) {
+        long byteSums = x - ((x & 0xA * ONES_STEP_4) >>> 1);
+        byteSums = (byteSums & 3 * ONES_STEP_4) + ((byteSums >>> 2) & 3 * ONES_STEP_4);
+        byteSums = (byteSums + (byteSums >>> 4)) & 0x0F * ONES_STEP_8;
+        byteSums *= ONES_STEP_8;
+
+        long rankStep8 = r * ONES_STEP_8;
+        int byteOffset = (int) (((((rankStep8 | MSBS_STEP_8) - byteSums) & MSBS_STEP_8) >>> 7) * ONES_STEP_8 >>> 53) & ~0x7;
+        int byteRank = r - (int) (((byteSums << 8) >>> byteOffset) & 0xFF);
+        return byteOffset + SELECT_IN_BYTE[(int) (x >>> byteOffset & 0xFF) | byteRank << 8];
+    }
+
+    /**
+     * Значение бита в позиции i
+     */
+    public boolean get(int i) {
+        return (words.get(i >>> WORD_BITS_LOG) & (1L << i)) != 0;
+    }
+
+    /**
+     * count бит начиная с позиции from в младших битах результата (0 <= count <= 64, from + count <= length)
+     */
+    public long getBits(int from, int count) {
+        if (count == 0) {
+            return 0L;
+        }
+        int w = from >>> WORD_BITS_LOG;
+        int offset = from & 63;
+        long value = words.get(w) >>> offset;
+        if (offset + count > 64) {
+            value |= words.get(w + 1) << (64 - offset); // Продолжение в следующем слове
+        }
+        return count == 64 ? value : value & ((1L << count) - 1);
+    }
+
+    /**
+     * Количество единиц на полуинтервале [0, i), 0 <= i <= length
+     */
+    public int rank1(int i) {
+        int sb = i >>> SUPERBLOCK_BITS_LOG;
+        long entry = rankDirectory.get(sb);
+        int rank = (int) (entry >>> 32);
+
+        // Добавляем единицы предшествующих блоков суперблока
+        int block = (i >>> BLOCK_BITS_LOG) & 3;
+        if (block > 0) {
+            rank += (int) (entry >>> 20) & 0x3FF;
+            if (block > 1) {
+                rank += (int) (entry >>> 10) & 0x3FF;
+                if (block > 2) {
+                    rank += (int) entry & 0x3FF;
+                }
+            }
+        }
+
+        // Досчитываем единицы внутри блока
+        int w = (sb << (SUPERBLOCK_BITS_LOG - WORD_BITS_LOG)) + (block << (BLOCK_BITS_LOG - WORD_BITS_LOG));
+        int lastWord = i >>> WORD_BITS_LOG;
+        for (; w < lastWord; w++) {
+            rank += Long.bitCount(words.get(w));
+        }
+        if ((i & 63) != 0) {
+            rank += Long.bitCount(words.get(lastWord) & ((1L << i) - 1));
+        }
+        return rank;
+    }
+
+    /**
+     * Количество нулей на полуинтервале [0, i), 0 <= i <= length
+     */
+    public int rank0(int i) {
+        return i - rank1(i);
+    }
+
+    /**
+     * Позиция k-й (с нуля) единицы, 0 <= k < countOnes()
+     */
+    public int select1(int k) {
+        return select(k, true);
+    }
+
+    /**
+     * Позиция k-го (с нуля) нуля, 0 <= k < countZeros()
+     */
+    public int select0(int k) {
+        return select(k, false);
+    }
+
+    private int select(int k, boolean ones) {
+        IntBuffer samples = ones ? select1Samples : select0Samples;
+        int sample = k >>> SELECT_SAMPLE_LOG;
+
+        // Искомый бит лежит между двумя соседними выборками - бинарный поиск суперблока по каталогу
+        int lo = samples.get(sample) >>> SUPERBLOCK_BITS_LOG;
+        int hi = sample + 1 < samples.capacity()
+                ? samples.get(sample + 1) >>> SUPERBLOCK_BITS_LOG
+                : rankDirectory.capacity() - 2;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (countBeforeSuperblock(mid, ones) <= k) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+
+        // Выбор блока внутри суперблока по счетчикам каталога
+        long entry = rankDirectory.get(lo);
+        int remaining = k - countBeforeSuperblock(lo, ones);
+        int block = 0;
+        for (; block < 3; block++) {
+            int blockOnes = (int) (entry >>> (20 - 10 * block)) & 0x3FF;
+            int blockCount = ones ? blockOnes : (1 << BLOCK_BITS_LOG) - blockOnes;
+            if (remaining < blockCount) {
+                break;
+            }
+            remaining -= blockCount;
+        }
+
+        // Перебор слов блока и select внутри слова
+        int w = (lo << (SUPERBLOCK_BITS_LOG - WORD_BITS_LOG)) + (block << (BLOCK_BITS_LOG - WORD_BITS_LOG));
+        while (true) {
+            long word = ones ? words.get(w) : ~words.get(w);
+            int wordCount = Long.bitCount(word);
+            if (remaining < wordCount) {
+                return (w << WORD_BITS_LOG) + selectInWord(word, remaining);
+            }
+            remaining -= wordCount;
+            w++;
+        }
+    }
+
+    /**
+     * Количество единиц (или нулей) до начала суперблока
+     */
+    private int countBeforeSuperblock(int superblock, boolean ones) {
+        int onesBefore = (int) (rankDirectory.get(superblock) >>> 32);
+        return ones ? onesBefore : (superblock << SUPERBLOCK_BITS_LOG) - onesBefore;
+    }
+
+    /**
+     * Позиция первого нуля, начиная с from включительно (length, если нулей дальше нет).
+     * Просматривает вектор по словам, без каталогов.
+     */
+    public int nextZero(int from) {
+        if (from >= length) {
+            return length;
+        }
+        int w = from >>> WORD_BITS_LOG;
+        long zeros = ~words.get(w) & (-1L << from); // Нули слова начиная с from
+        int lastWord = (length - 1) >>> WORD_BITS_LOG;
+        while (zeros == 0) {
+            if (++w > lastWord) {
+                return length;
+            }
+            zeros = ~words.get(w);
+        }
+        return Math.min((w << WORD_BITS_LOG) + Long.numberOfTrailingZeros(zeros), length);
+    }
+
+    /**
+     * Длина вектора в битах
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Общее количество единиц
+     */
+    public int countOnes() {
+        return onesCount;
+    }
+
+    /**
+     * Общее количество нулей
+     */
+    public int countZeros() {
+        return length - onesCount;
+    }
+
+    /**
+     * ========== РАЗМЕР В ПАМЯТИ ==========
+     */
+
+    /**
+     * Байты упакованных бит
+     */
+    public long bitsBytes() {
+        return (long) words.capacity() * Long.BYTES;
+    }
+
+    /**
+     * Байты каталога rank (по одному long на суперблок и завершающий элемент)
+     */
+    public long rankDirectoryBytes() {
+        return (long) rankDirectory.capacity() * Long.BYTES;
+    }
+
+    /**
+     * Байты выборок select1 и select0
+     */
+    public long selectSamplesBytes() {
+        return (long) (select1Samples.capacity() + select0Samples.capacity()) * Integer.BYTES;
+    }
+
+    /**
+     * Полный размер данных вектора в байтах
+     */
+    public long sizeInBytes() {
+        return bitsBytes() + rankDirectoryBytes() + selectSamplesBytes();
+    }
+}
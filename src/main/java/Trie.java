@@ -3,6 +3,7 @@ import java.util.*;
 public class Trie {
     TrieNode root = new TrieNode();;
     private int nodeCount = 1;
+    private int wordCount;
 
     /**
      * Класс для представления узла дерева
@@ -25,7 +26,10 @@ public class Trie {
             }
             current = current.children.get(c);
         }
-        current.terminates = true;
+        if (!current.terminates) {
+            current.terminates = true;
+            wordCount++;
+        }
     }
 
     public boolean search(String word) {
@@ -54,6 +58,13 @@ public class Trie {
         return nodeCount;
     }
 
+    /**
+     * Количество различных слов в дереве
+     */
+    public int getWordCount() {
+        return wordCount;
+    }
+
     /**
      * Получить все слова в дереве
      */
@@ -105,4 +116,77 @@ public class Trie {
         return words;
     }
 
+    /**
+     * ========== РАЗМЕР В ПАМЯТИ ==========
+     */
+
+    /**
+     * Оценка размера дерева по компонентам в байтах (64-битная JVM со сжатыми указателями, см. MemoryEstimate):
+     * объекты узлов, объекты HashMap детей, их таблицы, элементы HashMap.Node и упакованные ключи Character
+     * (значения до 127 берутся из кеша и не занимают памяти).
+     */
+    public Map<String, Long> estimateMemoryBreakdown() {
+        long nodes = 0;
+        long maps = 0;
+        long tables = 0;
+        long entries = 0;
+        long keys = 0;
+
+        Deque<TrieNode> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            TrieNode node = stack.pop();
+            nodes += MemoryEstimate.align(MemoryEstimate.OBJECT_HEADER + MemoryEstimate.REFERENCE + 1);
+            maps += MemoryEstimate.align(MemoryEstimate.OBJECT_HEADER + 4 * MemoryEstimate.REFERENCE + 4 * Integer.BYTES);
+            int size = node.children.size();
+            if (size > 0) {
+                // Таблица создаётся при первой вставке на 16 ячеек и удваивается при заполнении на 3/4
+                int capacity = 16;
+                while (size > capacity * 3 / 4) {
+                    capacity *= 2;
+                }
+                tables += MemoryEstimate.referenceArray(capacity);
+            }
+            entries += size * MemoryEstimate.align(MemoryEstimate.OBJECT_HEADER + Integer.BYTES + 3 * MemoryEstimate.REFERENCE);
+            for (Map.Entry<Character, TrieNode> child : node.children.entrySet()) {
+                if (child.getKey() > 127) {
+                    keys += MemoryEstimate.align(MemoryEstimate.OBJECT_HEADER + Character.BYTES);
+                }
+                stack.push(child.getValue());
+            }
+        }
+
+        Map<String, Long> breakdown = new LinkedHashMap<>();
+        breakdown.put("nodes", nodes);
+        breakdown.put("childMaps", maps);
+        breakdown.put("mapTables", tables);
+        breakdown.put("mapEntries", entries);
+        breakdown.put("boxedKeys", keys);
+        return breakdown;
+    }
+
+    /**
+     * Оценка полного размера дерева в байтах (сумма estimateMemoryBreakdown)
+     */
+    public long estimateSizeInBytes() {
+        long size = 0;
+        for (long bytes : estimateMemoryBreakdown().values()) {
+            size += bytes;
+        }
+        return size;
+    }
+
+    /**
+     * Оценка размера в битах на узел
+     */
+    public double bitsPerNode() {
+        return estimateSizeInBytes() * 8.0 / nodeCount;
+    }
+
+    /**
+     * Оценка размера в битах на слово
+     */
+    public double bitsPerKey() {
+        return estimateSizeInBytes() * 8.0 / wordCount;
+    }
 }
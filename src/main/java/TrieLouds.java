@@ -1,58 +1,117 @@
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class TrieLouds extends BasicLouds {
 
-    protected final List<Boolean> isWordEnd = new ArrayList<>();
+    protected CharBuffer labels;                                    // Символы узлов в порядке нумерации
+    protected SuccinctBitVector wordEnds;                           // Бит i установлен, если узел i - конец слова
+    private char[] labelsBuffer;                                    // Только на время построения
+    private BitVectorBuilder wordEndsWriter;                        // Только на время построения
 
     /**
      * Построение префиксного дерева LOUDS
      */
     public TrieLouds(TreeNode root) {
         super();
+        labelsBuffer = new char[16];
+        wordEndsWriter = new BitVectorBuilder();
         buildFromTree(root);
-        buildRankSelectTables();
+        labels = CharBuffer.wrap(Arrays.copyOf(labelsBuffer, nodeCount));
+        labelsBuffer = null;
+        wordEnds = wordEndsWriter.build();
+        wordEndsWriter = null;
     }
 
-    @Override
-    protected void buildFromTree(TreeNode root) {
-        StringBuilder bits = new StringBuilder();
-        bits.append("10");  // Искусственный корень
-
-        Queue<TreeNode> queue = new LinkedList<>();
-        queue.add(root);
-        nodeCount = 1;  // Учли корень
+    /**
+     * Префиксное дерево из готовой битовой строки LOUDS, символов узлов и признаков конца слова
+     */
+    TrieLouds(SuccinctBitVector bits, char[] labels, SuccinctBitVector wordEnds) {
+        this(bits, CharBuffer.wrap(labels), wordEnds);
+    }
 
-        // BFS обход
-        while (!queue.isEmpty()) {
-            TreeNode node = queue.poll();
+    TrieLouds(SuccinctBitVector bits, CharBuffer labels, SuccinctBitVector wordEnds) {
+        super();
+        this.bits = bits;
+        this.labels = labels;
+        this.wordEnds = wordEnds;
+        this.nodeCount = labels.capacity();
+        this.totalBits = bits.length();
+    }
 
-            isWordEnd.add(node.nodeData.endsWith("*")); // является ли узел концом слова
-            loudsData.add(node.nodeData.substring(0,1)); // Записываем символ узла
+    /**
+     * Чтение префиксного дерева из файла LOUDS: символы и концы слов остаются в отображённой памяти
+     */
+    TrieLouds(LoudsFile.Reader in) throws IOException {
+        super(in);
+        int labelCount = in.readInt();
+        in.readInt(); // Зарезервировано
+        labels = in.readChars(labelCount);
+        in.align();
+        wordEnds = SuccinctBitVector.read(in);
+        if (labelCount != nodeCount || wordEnds.length() != nodeCount) {
+            throw new IOException("Размеры секций не совпадают с количеством узлов");
+        }
+    }
 
-            int degree = node.children.size(); // Определяем количество потомков
+    /**
+     * Открыть префиксное дерево, ранее сохранённое методом save, через отображение файла в память
+     */
+    public static TrieLouds map(Path path) throws IOException {
+        BasicLouds louds = LoudsFile.map(path);
+        if (!(louds instanceof TrieLouds)) {
+            louds.close();
+            throw new IOException("Файл не содержит префиксное дерево LOUDS: " + path);
+        }
+        return (TrieLouds) louds;
+    }
 
-            // Добавляем единицы по количеству потомков и один ноль
-            for (int i = 0; i < degree; i++) {
-                bits.append('1');
-            }
-            bits.append('0');
+    /**
+     * Копия дерева, у которой битовая строка, символы и концы слов лежат вне кучи
+     */
+    @Override
+    public TrieLouds toOffHeap() {
+        OffHeapStorage offHeap = new OffHeapStorage();
+        TrieLouds copy = new TrieLouds(bits.copyTo(offHeap), offHeap.copyOf(labels), wordEnds.copyTo(offHeap));
+        copy.storage = offHeap;
+        return copy;
+    }
 
-            // Добавляем потомков в очередь
-            for (TreeNode child : node.children) {
-                queue.add(child);
-                nodeCount++;
-            }
+    @Override
+    public void close() {
+        if (storage != null) {
+            labels = null;
+            wordEnds = null;
         }
+        super.close();
+    }
 
-        totalBits = 2 * nodeCount + 1;
+    @Override
+    protected int fileKind() {
+        return LoudsFile.KIND_TRIE;
+    }
 
-        // Преобразуем строку в BitSet
-        loudsBits = new BitSet(bits.length());
-        for (int i = 0; i < bits.length(); i++) {
-            if (bits.charAt(i) == '1') {
-                loudsBits.set(i);
-            }
+    @Override
+    protected void writeSections(LoudsFile.Writer out) throws IOException {
+        super.writeSections(out);
+        out.writeInt(labels.capacity());
+        out.writeInt(0); // Зарезервировано
+        out.writeChars(labels);
+        out.align();
+        wordEnds.writeTo(out);
+    }
+
+    @Override
+    protected void addNodeData(TreeNode node) {
+        int nodeNumber = wordEndsWriter.length();
+        if (nodeNumber == labelsBuffer.length) {
+            labelsBuffer = Arrays.copyOf(labelsBuffer, labelsBuffer.length * 2);
         }
+        labelsBuffer[nodeNumber] = node.nodeData.charAt(0); // Записываем символ узла
+        wordEndsWriter.append(node.nodeData.endsWith("*")); // является ли узел концом слова
     }
 
     /**
@@ -63,49 +122,45 @@ public class TrieLouds extends BasicLouds {
      * Получить символ узла
      */
     private char getNodeChar(int nodeNumber) {
-        String data = loudsData.get(nodeNumber);
-        // Возвращаем первый символ (символ узла)
-        return data.charAt(0);
+        return labels.get(nodeNumber);
+    }
+
+    /**
+     * Получить данные узла (символ узла)
+     */
+    @Override
+    public String getNodeData(int nodeNumber) {
+        return String.valueOf(labels.get(nodeNumber));
     }
 
     /**
      * Проверить, является ли узел концом слова
      */
     public boolean isWordEnd(int nodeNumber) {
-        return isWordEnd.get(nodeNumber);
+        return wordEnds.get(nodeNumber);
     }
 
     /**
      * Найти дочерний узел по символу
      */
     public int findChildByChar(int nodeNumber, char ch) {
-        int firstChild = firstChild(nodeNumber);
-        if (firstChild == -1) {
-            return -1; // Нет детей
-        }
+        // Диапазон детей за один select0 (для листа он пуст)
+        long range = childRange(nodeNumber);
 
-        int degree = degree(nodeNumber);
-        /*for (int i = 0; i < degree; i++) {
-            int childNode = firstChild + i;
-            if (getNodeChar(childNode) == ch) {
-                return childNode;
-            }
-        }*/
         // Бинарный поиск в отсортированном массиве детей
-        int left = 0;
-        int right = degree - 1;
+        int left = rangeFirst(range);
+        int right = rangeEnd(range) - 1;
 
         while (left <= right) {
-            int mid = left + (right - left) / 2;
-            int childNode = firstChild + mid;
+            int childNode = (left + right) >>> 1;
             char childChar = getNodeChar(childNode);
 
             if (childChar == ch) {
                 return childNode; // Нашли
             } else if (childChar < ch) {
-                left = mid + 1; // Ищем справа
+                left = childNode + 1; // Ищем справа
             } else {
-                right = mid - 1; // Ищем слева
+                right = childNode - 1; // Ищем слева
             }
         }
 
@@ -152,62 +207,157 @@ public class TrieLouds extends BasicLouds {
     }
 
     /**
-     * Получить все слова в дереве
+     * Получить все слова в дереве в лексикографическом порядке
      */
     public List<String> getAllWords() {
-        List<String> words = new ArrayList<>();
-        StringBuilder currentWord = new StringBuilder();
-        getAllWordsDFS(0, currentWord, words);
-        return words;
+        return getWordsWithPrefix("");
     }
 
     /**
-     * Рекурсивный обход для получения всех слов
+     * Получить все слова с данным префиксом в лексикографическом порядке
      */
-    private void getAllWordsDFS(int nodeNumber, StringBuilder currentWord, List<String> words) {
-        // Добавляем символ текущего узла (кроме корня)
-        if (nodeNumber != 0) {
-            currentWord.append(getNodeChar(nodeNumber));
+    public List<String> getWordsWithPrefix(String prefix) {
+        List<String> result = new ArrayList<>();
+        Iterator<CharSequence> it = wordIterator(prefix);
+        while (it.hasNext()) {
+            result.add(it.next().toString());
         }
+        return result;
+    }
 
-        // Если узел помечен как конец слова, добавляем слово в список
-        if (isWordEnd(nodeNumber)) {
-            words.add(currentWord.toString());
+    /**
+     * Страница слов с данным префиксом: не больше limit слов, начиная с номера offset
+     * в лексикографическом порядке. Поддеревья, целиком лежащие до offset, пропускаются
+     * по количеству слов в них (см. subtreesWordCount), без перечисления: на каждом уровне пути
+     * ребёнок с нужным словом находится двоичным поиском.
+     */
+    public List<String> getWordsWithPrefix(String prefix, int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("offset и limit не могут быть отрицательными");
+        }
+        List<String> result = new ArrayList<>();
+        int startNode = findNodeByPrefix(prefix);
+        if (startNode == -1 || limit == 0) {
+            return result;
         }
 
-        // Рекурсивно обходим всех детей
-        int firstChild = firstChild(nodeNumber);
-        if (firstChild != -1) {
-            int degree = degree(nodeNumber);
-            for (int i = 0; i < degree; i++) {
-                int childNode = firstChild + i;
-                getAllWordsDFS(childNode, new StringBuilder(currentWord), words);
+        // Спуск к слову с номером offset: двоичным поиском по числу слов в поддеревьях первых детей
+        // находим ребёнка, в поддереве которого лежит нужное слово
+        IntPath path = new IntPath();
+        int node = startNode;
+        int skip = offset;
+        while (!(isWordEnd(node) && skip == 0)) {
+            if (isWordEnd(node)) {
+                skip--;
             }
+            long range = childRange(node);
+            int first = rangeFirst(range);
+            if (skip >= subtreesWordCount(first, rangeEnd(range))) {
+                return result; // В поддереве меньше offset + 1 слов
+            }
+            // Наименьший child, у которого в поддеревьях [first, child + 1) больше skip слов
+            int left = first;
+            int right = rangeEnd(range) - 1;
+            while (left < right) {
+                int mid = (left + right) >>> 1;
+                if (subtreesWordCount(first, mid + 1) > skip) {
+                    right = mid;
+                } else {
+                    left = mid + 1;
+                }
+            }
+            skip -= subtreesWordCount(first, left);
+            path.add(left);
+            node = left;
         }
+
+        Iterator<CharSequence> it = path.size == 0
+                ? new TrieLoudsIterator(this, startNode, prefix)
+                : new TrieLoudsIterator(this, startNode, prefix, path.toArray());
+        while (result.size() < limit && it.hasNext()) {
+            result.add(it.next().toString());
+        }
+        return result;
     }
 
-    public List<String> getWordsWithPrefix(String prefix) {
-        List<String> result = new ArrayList<>();
+    /**
+     * Количество слов с данным префиксом без их перечисления, см. subtreeWordCount
+     */
+    public int countWithPrefix(String prefix) {
+        int node = findNodeByPrefix(prefix);
+        return node == -1 ? 0 : subtreeWordCount(node);
+    }
 
-        // 1. Находим узел, соответствующий префиксу
-        int prefixNode = findNodeByPrefix(prefix);
-        if (prefixNode == -1) {
-            return result; // префикс не найден
-        }
+    /**
+     * Количество концов слов в поддереве узла. Узлы поддерева на каждом уровне занимают непрерывный
+     * диапазон номеров [lo, hi): диапазон следующего уровня - от первого ребёнка lo до последнего
+     * ребёнка hi - 1, а концы слов в диапазоне считаются разностью rank по wordEnds.
+     * Стоимость - два childRange на уровень поддерева, независимо от количества слов в нём.
+     */
+    protected int subtreeWordCount(int nodeNumber) {
+        return subtreesWordCount(nodeNumber, nodeNumber + 1);
+    }
 
-        // 2. Собираем все слова из поддерева
-        if (isWordEnd(prefixNode)) {
-            result.add(prefix); // сам префикс является словом
+    /**
+     * Количество концов слов в поддеревьях узлов [lo, hi) одного уровня (например, диапазона братьев)
+     */
+    int subtreesWordCount(int lo, int hi) {
+        int count = 0;
+        while (lo < hi) {
+            count += wordEnds.rank1(hi) - wordEnds.rank1(lo);
+            lo = rangeFirst(childRange(lo));
+            hi = rangeEnd(childRange(hi - 1));
         }
+        return count;
+    }
+
+    /**
+     * Ленивый обход слов с данным префиксом в лексикографическом порядке, см. TrieLoudsIterator.
+     * Возвращаемый буфер переиспользуется между вызовами next().
+     */
+    public Iterator<CharSequence> wordIterator(String prefix) {
+        return new TrieLoudsIterator(this, findNodeByPrefix(prefix), prefix);
+    }
 
-        // 3. Рекурсивно обходим поддерево
-        StringBuilder currentWord = new StringBuilder(prefix);
-        getAllWordsDFS(prefixNode, currentWord, result);
+    /**
+     * Разделяемый обход слов с данным префиксом для параллельной обработки, см. TrieLoudsSpliterator
+     */
+    public Spliterator<String> wordSpliterator(String prefix) {
+        return new TrieLoudsSpliterator(this, findNodeByPrefix(prefix), prefix);
+    }
+
+    /**
+     * Поток слов с данным префиксом в лексикографическом порядке; слова вычисляются по мере чтения потока.
+     * Поток можно сделать параллельным через parallel(): он делится по поддеревьям детей.
+     */
+    public Stream<String> words(String prefix) {
+        return StreamSupport.stream(wordSpliterator(prefix), false);
+    }
 
+    /**
+     * Все слова, совпадающие с шаблоном glob, в лексикографическом порядке (синтаксис - см. GlobPattern:
+     * '?', '*', [abc], [a-z], [!abc])
+     *
+     * @throws IllegalArgumentException если шаблон некорректен
+     */
+    public List<String> getWordsMatching(String pattern) {
+        List<String> result = new ArrayList<>();
+        matchIterator(pattern).forEachRemaining(result::add);
         return result;
     }
 
-    private int findNodeByPrefix(String prefix) {
+    /**
+     * Ленивый обход слов, совпадающих с шаблоном glob, в лексикографическом порядке.
+     * Автомат шаблона проходится вместе с деревом, поддеревья без возможных совпадений пропускаются,
+     * см. TrieLoudsPatternIterator.
+     *
+     * @throws IllegalArgumentException если шаблон некорректен
+     */
+    public Iterator<String> matchIterator(String pattern) {
+        return new TrieLoudsPatternIterator(this, GlobPattern.compile(pattern));
+    }
+
+    protected int findNodeByPrefix(String prefix) {
         int currentNode = 0;
 
         for (char ch : prefix.toCharArray()) {
@@ -221,61 +371,465 @@ public class TrieLouds extends BasicLouds {
         return currentNode;
     }
 
-    public static TrieLouds buildFromWordList(List<String> words) {
-        // Создаем корневой узел для префиксного дерева
-        TreeNode root = new TreeNode(0, "\0"); // Корень имеет пустой символ
+    /**
+     * ========== РАЗМЕР В ПАМЯТИ ==========
+     */
 
-        // Вставляем все слова в префиксное дерево
-        for (String word : words) {
-            if (word == null || word.isEmpty()) continue;
-
-            TreeNode current = root;
-            for (int i = 0; i < word.length(); i++) {
-                char ch = word.charAt(i);
-                // Ищем дочерний узел с таким символом
-                BasicLouds.TreeNode foundChild = null;
-                for (BasicLouds.TreeNode child : current.children) {
-                    if (child.nodeData.charAt(0) == ch) {
-                        foundChild = child;
-                        break;
-                    }
+    @Override
+    public Map<String, Long> memoryBreakdown() {
+        Map<String, Long> breakdown = super.memoryBreakdown();
+        breakdown.put("labels", (long) labels.capacity() * Character.BYTES);   // Символы узлов
+        breakdown.put("wordEnds", wordEnds.bitsBytes());                        // Признаки конца слова
+        breakdown.put("wordEndsIndex", wordEnds.rankDirectoryBytes() + wordEnds.selectSamplesBytes()); // rank/select по концам слов
+        return breakdown;
+    }
+
+    /**
+     * Размер структуры в битах на слово
+     */
+    public double bitsPerKey() {
+        return sizeInBytes() * 8.0 / getWordCount();
+    }
+
+    /**
+     * ========== ПАКЕТНЫЙ ПОИСК ==========
+     */
+
+    /**
+     * Поиск набора слов за один проход: ключи обходятся в лексикографическом порядке
+     * (уже отсортированный массив не сортируется), и путь по общему префиксу соседних ключей
+     * не проходится заново.
+     *
+     * @return множество индексов ключей, найденных в дереве
+     */
+    public BitSet searchAll(String[] keys) {
+        int[] order = new int[keys.length];
+        boolean sorted = true;
+        for (int i = 0; i < keys.length; i++) {
+            order[i] = i;
+            if (i > 0 && keys[i - 1].compareTo(keys[i]) > 0) {
+                sorted = false;
+            }
+        }
+        if (!sorted) {
+            sortIndices(keys, order, new int[keys.length], 0, keys.length);
+        }
+
+        BitSet found = new BitSet(keys.length);
+        int[] path = new int[16];       // path[d] - узел после первых d символов предыдущего ключа
+        int matched = 0;                // Сколько символов предыдущего ключа пройдено по дереву
+        String previous = "";
+        for (int index : order) {
+            String key = keys[index];
+
+            // Общий префикс с предыдущим ключом уже пройден
+            int depth = 0;
+            int limit = Math.min(matched, key.length());
+            while (depth < limit && key.charAt(depth) == previous.charAt(depth)) {
+                depth++;
+            }
+
+            if (key.length() >= path.length) {
+                path = Arrays.copyOf(path, Math.max(key.length() + 1, path.length * 2));
+            }
+            int currentNode = path[depth];
+            while (depth < key.length()) {
+                int childNode = findChildByChar(currentNode, key.charAt(depth));
+                if (childNode == -1) {
+                    break; // Символ не найден
                 }
+                currentNode = childNode;
+                path[++depth] = currentNode;
+            }
 
-                if (foundChild == null) {
-                    // Создаем новый узел
-                    BasicLouds.TreeNode newNode = new BasicLouds.TreeNode(-1, String.valueOf(ch));
-                    current.addChild(newNode);
-                    current = newNode;
-                } else {
-                    current = foundChild;
+            if (depth == key.length() && isWordEnd(currentNode)) {
+                found.set(index);
+            }
+            matched = depth;
+            previous = key;
+        }
+        return found;
+    }
+
+    /**
+     * Сортировка слиянием индексов order[from, to) по ключам без упаковки индексов в Integer
+     * (buffer - рабочий массив той же длины)
+     */
+    private static void sortIndices(String[] keys, int[] order, int[] buffer, int from, int to) {
+        if (to - from < 2) {
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        sortIndices(keys, order, buffer, from, middle);
+        sortIndices(keys, order, buffer, middle, to);
+        if (keys[order[middle - 1]].compareTo(keys[order[middle]]) <= 0) {
+            return; // Половины уже идут по порядку
+        }
+        System.arraycopy(order, from, buffer, from, to - from);
+        int left = from;
+        int right = middle;
+        for (int i = from; i < to; i++) {
+            if (right == to || left < middle && keys[buffer[left]].compareTo(keys[buffer[right]]) <= 0) {
+                order[i] = buffer[left++];
+            } else {
+                order[i] = buffer[right++];
+            }
+        }
+    }
+
+    /**
+     * Проверить, что все ключи есть в дереве (пакетный поиск, см. searchAll)
+     */
+    public boolean containsAll(String... keys) {
+        return searchAll(keys).cardinality() == keys.length;
+    }
+
+    /**
+     * ========== НЕЧЁТКИЙ ПОИСК ==========
+     */
+
+    /**
+     * Слова на расстоянии Левенштейна не больше maxEdits от запроса, в лексикографическом порядке.
+     *
+     * Дерево обходится в глубину на явном стеке; для узла на глубине d строка динамики
+     * rows[d] (расстояния от префикса длины d до всех префиксов запроса) вычисляется за O(|query|)
+     * из строки родителя. Если минимум строки больше maxEdits, ни одно продолжение префикса
+     * не подойдёт, и поддерево пропускается. Стоимость пропорциональна числу посещённых узлов,
+     * а не размеру словаря.
+     *
+     * @param limit наибольшее количество слов в результате
+     */
+    public List<String> fuzzySearch(String query, int maxEdits, int limit) {
+        if (maxEdits < 0 || limit < 0) {
+            throw new IllegalArgumentException("maxEdits и limit не могут быть отрицательными");
+        }
+        List<String> result = new ArrayList<>();
+        int columns = query.length() + 1;
+        int[][] rows = new int[16][];
+        rows[0] = new int[columns];
+        for (int j = 0; j < columns; j++) {
+            rows[0][j] = j; // Расстояние от пустого префикса
+        }
+        char[] word = new char[16];
+
+        // Элемент стека: номер узла и его глубина (((long) глубина << 32) | узел)
+        long[] stack = new long[16];
+        int top = 0;
+        long range = childRange(0);
+        for (int child = rangeEnd(range) - 1; child >= rangeFirst(range); child--) {
+            stack = push(stack, top++, child, 1);
+        }
+
+        while (top > 0 && result.size() < limit) {
+            long entry = stack[--top];
+            int node = (int) entry;
+            int depth = (int) (entry >>> 32);
+
+            if (depth == rows.length) {
+                rows = Arrays.copyOf(rows, depth * 2);
+                word = Arrays.copyOf(word, depth * 2);
+            }
+            if (rows[depth] == null) {
+                rows[depth] = new int[columns];
+            }
+            char ch = getNodeChar(node);
+            word[depth - 1] = ch;
+
+            // Строка узла из строки родителя (rows[depth - 1] - строка родителя: при обходе в глубину
+            // более глубокие строки перезаписываются, а строки предков остаются)
+            int[] previous = rows[depth - 1];
+            int[] row = rows[depth];
+            row[0] = depth;
+            int minimum = row[0];
+            for (int j = 1; j < columns; j++) {
+                int cost = query.charAt(j - 1) == ch ? 0 : 1;
+                row[j] = Math.min(Math.min(row[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                minimum = Math.min(minimum, row[j]);
+            }
+
+            if (isWordEnd(node) && row[columns - 1] <= maxEdits) {
+                result.add(new String(word, 0, depth));
+            }
+            if (minimum <= maxEdits) {
+                range = childRange(node);
+                for (int child = rangeEnd(range) - 1; child >= rangeFirst(range); child--) {
+                    stack = push(stack, top++, child, depth + 1);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static long[] push(long[] stack, int top, int node, int depth) {
+        if (top == stack.length) {
+            stack = Arrays.copyOf(stack, top * 2);
+        }
+        stack[top] = ((long) depth << 32) | node;
+        return stack;
+    }
+
+    /**
+     * ========== УПОРЯДОЧЕННЫЕ ЗАПРОСЫ ==========
+     */
+
+    /**
+     * Наименьшее слово, большее или равное key, или null, если такого нет.
+     * Поиск - один спуск по key с двоичным поиском среди детей, O(|key| * log(степень)),
+     * и спуск по первым детям до конца слова.
+     */
+    public String ceiling(String key) {
+        int[] path = ceilingPath(key);
+        return path == null ? null : pathToString(path);
+    }
+
+    /**
+     * Наибольшее слово, меньшее или равное key, или null, если такого нет
+     */
+    public String floor(String key) {
+        int[] path = floorPath(key);
+        return path == null ? null : pathToString(path);
+    }
+
+    /**
+     * Ленивый обход слов из [from, to) в лексикографическом порядке. null вместо границы - без ограничения.
+     * Начало находится как ceiling(from), дальше обход идёт по соседним узлам без повторного поиска.
+     */
+    public Iterator<String> range(String from, String to) {
+        int[] path = ceilingPath(from == null ? "" : from);
+        Iterator<CharSequence> words = path == null
+                ? new TrieLoudsIterator(this, -1, "")
+                : new TrieLoudsIterator(this, 0, "", path);
+
+        return new Iterator<String>() {
+            private String next = advance();
+
+            private String advance() {
+                if (!words.hasNext()) {
+                    return null;
+                }
+                String word = words.next().toString();
+                return to == null || word.compareTo(to) < 0 ? word : null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public String next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                String result = next;
+                next = advance();
+                return result;
+            }
+        };
+    }
+
+    /**
+     * Путь по key от корня: path[d] - узел после первых d символов
+     *
+     * @return длина пройденной части key
+     */
+    private int descendPath(String key, int[] path) {
+        int depth = 0;
+        while (depth < key.length()) {
+            int child = findChildByChar(path[depth], key.charAt(depth));
+            if (child == -1) {
+                break;
+            }
+            path[++depth] = child;
+        }
+        return depth;
+    }
+
+    /**
+     * Путь (узлы от первого уровня) к наименьшему слову >= key или null
+     */
+    private int[] ceilingPath(String key) {
+        int[] path = new int[key.length() + 1];
+        int depth = descendPath(key, path);
+        if (depth == key.length() && depth > 0 && isWordEnd(path[depth])) {
+            return Arrays.copyOfRange(path, 1, depth + 1);
+        }
+
+        // Поднимаемся, пока не найдётся ребёнок больше символа key (или любой ребёнок, если key пройден целиком)
+        for (int d = depth; d >= 0; d--) {
+            long range = childRange(path[d]);
+            int child = d == key.length() ? rangeFirst(range) : upperBound(range, key.charAt(d));
+            if (child < rangeEnd(range)) {
+                // Наименьшее слово поддерева - первый конец слова на пути по первым детям
+                IntPath result = new IntPath(path, d + 1);
+                result.add(child);
+                while (!isWordEnd(child)) {
+                    child = rangeFirst(childRange(child));
+                    result.add(child);
                 }
+                return result.toArray();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Путь (узлы от первого уровня) к наибольшему слову <= key или null
+     */
+    private int[] floorPath(String key) {
+        int[] path = new int[key.length() + 1];
+        int depth = descendPath(key, path);
+        if (depth == key.length() && depth > 0 && isWordEnd(path[depth])) {
+            return Arrays.copyOfRange(path, 1, depth + 1);
+        }
 
-                // Если это последний символ слова, отмечаем узел как конец слова
-                if (i == word.length() - 1) {
-                    // Если уже есть маркер конца слова (например, "a*"), оставляем его
-                    if (!current.nodeData.endsWith("*")) {
-                        current.nodeData += "*"; // Добавляем звездочку как маркер конца слова
-                    }
+        // Поднимаемся: сначала ищем ребёнка меньше символа key, затем сам узел, если он - конец слова
+        for (int d = Math.min(depth, key.length() - 1); d >= 0; d--) {
+            long range = childRange(path[d]);
+            char ch = key.charAt(d);
+            int child = (ch == 0 ? rangeFirst(range) : upperBound(range, (char) (ch - 1))) - 1;
+            if (child >= rangeFirst(range)) {
+                // Наибольшее слово поддерева - лист на пути по последним детям
+                IntPath result = new IntPath(path, d + 1);
+                result.add(child);
+                for (range = childRange(child); rangeFirst(range) < rangeEnd(range); range = childRange(child)) {
+                    child = rangeEnd(range) - 1;
+                    result.add(child);
                 }
+                return result.toArray();
+            }
+            if (d > 0 && isWordEnd(path[d])) {
+                return Arrays.copyOfRange(path, 1, d + 1);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Первый ребёнок из диапазона с символом больше ch (конец диапазона, если такого нет)
+     */
+    private int upperBound(long range, char ch) {
+        int left = rangeFirst(range);
+        int right = rangeEnd(range);
+        while (left < right) {
+            int mid = (left + right) >>> 1;
+            if (labels.get(mid) <= ch) {
+                left = mid + 1;
+            } else {
+                right = mid;
+            }
+        }
+        return left;
+    }
+
+    private String pathToString(int[] path) {
+        char[] word = new char[path.length];
+        for (int i = 0; i < path.length; i++) {
+            word[i] = labels.get(path[i]);
+        }
+        return new String(word);
+    }
+
+    /**
+     * Растущий путь - номера узлов сверху вниз (без начального узла)
+     */
+    private static final class IntPath {
+        private int[] nodes;
+        private int size;
+
+        IntPath() {
+            nodes = new int[16];
+        }
+
+        /**
+         * Путь, начинающийся с path[1, length) (path[0] - корень)
+         */
+        IntPath(int[] path, int length) {
+            nodes = Arrays.copyOfRange(path, 1, length + 8);
+            size = length - 1;
+        }
+
+        void add(int node) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2 + 1);
             }
+            nodes[size++] = node;
         }
 
-        // Присваиваем id узлам в порядке BFS
-        Queue<TreeNode> queue = new LinkedList<>();
-        queue.add(root);
-        int nextId = 0;
+        int[] toArray() {
+            return Arrays.copyOf(nodes, size);
+        }
+    }
+
+    /**
+     * ========== НОМЕРА СЛОВ ==========
+     */
 
-        while (!queue.isEmpty()) {
-            TreeNode node = queue.poll();
-            node.id = nextId++;
+    /**
+     * Количество слов в дереве
+     */
+    public int getWordCount() {
+        return wordEnds.countOnes();
+    }
+
+    /**
+     * Номер слова от 0 до getWordCount() - 1: количество концов слов среди узлов с меньшими номерами.
+     * Номера плотные и без коллизий (минимальная совершенная хеш-функция), порядок - порядок узлов в BFS.
+     *
+     * @return номер слова или -1, если слова нет в дереве
+     */
+    public int lookupId(String word) {
+        int node = findNodeByPrefix(word);
+        if (node == -1 || !isWordEnd(node)) {
+            return -1;
+        }
+        return wordEnds.rank1(node);
+    }
+
+    /**
+     * Слово по его номеру: узел находится через select1 по концам слов,
+     * символы собираются подъёмом к корню через parent()
+     *
+     * @throws IndexOutOfBoundsException если номер вне [0, getWordCount())
+     */
+    public String wordForId(int id) {
+        if (id < 0 || id >= getWordCount()) {
+            throw new IndexOutOfBoundsException("Нет слова с номером " + id);
+        }
+        return wordForNode(wordEnds.select1(id));
+    }
 
-            // Сортируем детей по символу для детерминированного порядка
-            node.children.sort(Comparator.comparingInt(c -> c.nodeData.charAt(0)));
+    /**
+     * Строка пути от корня до узла: символы собираются подъёмом через parent()
+     */
+    protected String wordForNode(int nodeNumber) {
+        StringBuilder word = new StringBuilder();
+        for (int node = nodeNumber; node != 0; node = parent(node)) {
+            word.append(getNodeChar(node));
+        }
+        return word.reverse().toString();
+    }
 
-            queue.addAll(node.children);
+    /**
+     * Построение префиксного дерева из произвольного списка слов (слова сортируются)
+     */
+    public static TrieLouds buildFromWordList(List<String> words) {
+        List<String> sorted = new ArrayList<>(words.size());
+        for (String word : words) {
+            if (word != null && !word.isEmpty()) {
+                sorted.add(word);
+            }
         }
+        Collections.sort(sorted);
+        return buildFromSortedWords(sorted.iterator());
+    }
 
-        return new TrieLouds(root);
+    /**
+     * Построение префиксного дерева из лексикографически отсортированных слов (повторы допускаются)
+     * без промежуточного дерева, см. TrieLoudsBuilder
+     */
+    public static TrieLouds buildFromSortedWords(Iterator<String> sortedWords) {
+        return new TrieLoudsBuilder().addAll(sortedWords).build();
     }
 
 }
@@ -0,0 +1,137 @@
+import java.util.*;
+
+/**
+ * Построение префиксного дерева LOUDS напрямую из отсортированного потока слов, без промежуточного дерева TreeNode.
+ *
+ * При лексикографически отсортированном входе узлы каждого уровня появляются ровно в порядке BFS,
+ * поэтому для каждого уровня отдельно накапливаются:
+ *  - биты: при создании узла дописывается 0, при создании каждого его ребёнка - 1;
+ *  - символы узлов;
+ *  - признаки конца слова.
+ * Все дети узла создаются раньше следующего узла того же уровня, поэтому последовательность уровня имеет вид
+ * 0 1^d(0) 0 1^d(1) ..., а вся битовая строка LOUDS получается как 1 + уровень 0 + уровень 1 + ... + 0.
+ * Память пропорциональна размеру результата.
+ */
+public class TrieLoudsBuilder {
+
+    /**
+     * Накопленные данные одного уровня дерева
+     */
+    static final class Level {
+        final BitVectorBuilder bits = new BitVectorBuilder();
+        final BitVectorBuilder wordEnds = new BitVectorBuilder();
+        char[] labels = new char[16];
+        int size;
+
+        void addNode(char label, boolean wordEnd) {
+            if (size == labels.length) {
+                labels = Arrays.copyOf(labels, size * 2);
+            }
+            labels[size++] = label;
+            bits.append(false);
+            wordEnds.append(wordEnd);
+        }
+    }
+
+    final List<Level> levels = new ArrayList<>();                   // Уровень 0 содержит только корень
+    private String previous = "";                                   // Последнее добавленное слово
+    private int wordCount;                                          // Количество различных слов
+    private boolean built;
+
+    public TrieLoudsBuilder() {
+        levels.add(new Level());
+        levels.get(0).addNode('\0', false); // Корень имеет пустой символ
+    }
+
+    /**
+     * Добавить слово. Слова должны поступать в лексикографическом порядке (String.compareTo),
+     * повторы пропускаются, пустые слова и null игнорируются.
+     *
+     * @throws IllegalArgumentException если слово меньше предыдущего
+     */
+    public TrieLoudsBuilder add(String word) {
+        if (built) {
+            throw new IllegalStateException("Дерево уже построено");
+        }
+        if (word == null || word.isEmpty()) {
+            return this;
+        }
+
+        int cmp = word.compareTo(previous);
+        if (cmp < 0) {
+            throw new IllegalArgumentException("Слова должны быть отсортированы: '" + word + "' после '" + previous + "'");
+        }
+        if (cmp == 0) {
+            return this; // Повтор
+        }
+
+        // Узлы общего с предыдущим словом префикса уже созданы
+        int common = 0;
+        int limit = Math.min(word.length(), previous.length());
+        while (common < limit && word.charAt(common) == previous.charAt(common)) {
+            common++;
+        }
+
+        for (int depth = common + 1; depth <= word.length(); depth++) {
+            if (depth == levels.size()) {
+                levels.add(new Level());
+            }
+            levels.get(depth - 1).bits.append(true); // Ещё один ребёнок у последнего узла уровня выше
+            levels.get(depth).addNode(word.charAt(depth - 1), depth == word.length());
+        }
+
+        previous = word;
+        wordCount++;
+        return this;
+    }
+
+    /**
+     * Добавить все слова из итератора
+     */
+    public TrieLoudsBuilder addAll(Iterator<String> words) {
+        while (words.hasNext()) {
+            add(words.next());
+        }
+        return this;
+    }
+
+    /**
+     * Количество различных добавленных слов
+     */
+    public int getWordCount() {
+        return wordCount;
+    }
+
+    /**
+     * Склеить уровни в битовую строку LOUDS, массив символов и вектор концов слов
+     */
+    public TrieLouds build() {
+        if (built) {
+            throw new IllegalStateException("Дерево уже построено");
+        }
+        built = true;
+
+        int nodeCount = 0;
+        for (Level level : levels) {
+            nodeCount += level.size;
+        }
+
+        BitVectorBuilder bits = new BitVectorBuilder(2 * nodeCount + 1);
+        BitVectorBuilder wordEnds = new BitVectorBuilder(nodeCount);
+        char[] labels = new char[nodeCount];
+
+        bits.append(true); // Искусственный корень
+        int offset = 0;
+        for (int depth = 0; depth < levels.size(); depth++) {
+            Level level = levels.set(depth, null); // Уровень больше не нужен после копирования
+            bits.appendAll(level.bits);
+            wordEnds.appendAll(level.wordEnds);
+            System.arraycopy(level.labels, 0, labels, offset, level.size);
+            offset += level.size;
+        }
+        bits.append(false);
+        levels.clear();
+
+        return new TrieLouds(bits.build(), labels, wordEnds.build());
+    }
+}
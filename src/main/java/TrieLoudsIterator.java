@@ -0,0 +1,114 @@
+import java.util.*;
+
+/**
+ * Ленивый обход слов поддерева TrieLouds в лексикографическом порядке без рекурсии.
+ *
+ * Дети узла в LOUDS занимают непрерывный диапазон номеров, поэтому стек обхода хранит для каждого
+ * уровня ниже начального узла только текущий узел и конец диапазона его братьев. Слово собирается
+ * в одном StringBuilder: при спуске дописывается символ, при переходе к брату заменяется последний,
+ * при подъёме - удаляется. На каждый узел ничего не выделяется.
+ *
+ * next() возвращает этот общий буфер: он действителен до следующего вызова hasNext()/next(),
+ * для сохранения слова нужно вызвать toString().
+ */
+public class TrieLoudsIterator implements Iterator<CharSequence> {
+
+    private final TrieLouds trie;
+    private final StringBuilder word;                               // Путь от корня до текущего узла
+    private int[] nodes = new int[16];                              // Текущий узел на каждом уровне стека
+    private int[] ends = new int[16];                               // Конец диапазона братьев (не включительно)
+    private int depth;                                              // Количество уровней в стеке
+    private int current;                                            // Текущий узел, -1 - обход закончен
+    private boolean ready;                                          // current - конец слова, ещё не выданный next()
+
+    /**
+     * Обход поддерева узла startNode, путь до которого равен prefix (startNode = -1 - пустой обход)
+     */
+    TrieLoudsIterator(TrieLouds trie, int startNode, CharSequence prefix) {
+        this.trie = trie;
+        this.word = new StringBuilder(prefix);
+        this.current = startNode;
+        this.ready = startNode != -1 && trie.isWordEnd(startNode);
+    }
+
+    /**
+     * Обход поддерева узла startNode (путь до него равен prefix), начиная с узла path[path.length - 1],
+     * где path - непустой путь вниз от startNode. Стек заполняется этим путём, поэтому после поддерева
+     * последнего узла обход продолжается с его следующих братьев и братьев его предков внутри поддерева.
+     */
+    TrieLoudsIterator(TrieLouds trie, int startNode, CharSequence prefix, int[] path) {
+        this(trie, path[path.length - 1], prefix);
+        int parent = startNode;
+        for (int node : path) {
+            push(node, BasicLouds.rangeEnd(trie.childRange(parent)));
+            parent = node;
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!ready && current != -1) {
+            ready = advanceToWord();
+        }
+        return ready;
+    }
+
+    @Override
+    public CharSequence next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        ready = false;
+        return word;
+    }
+
+    /**
+     * Перейти к следующему концу слова в прямом порядке обхода
+     */
+    private boolean advanceToWord() {
+        while (moveNext()) {
+            if (trie.isWordEnd(current)) {
+                return true;
+            }
+        }
+        current = -1;
+        return false;
+    }
+
+    /**
+     * Следующий узел в прямом порядке: первый ребёнок, иначе ближайший следующий брат узла или предка
+     */
+    private boolean moveNext() {
+        long range = trie.childRange(current);
+        int firstChild = BasicLouds.rangeFirst(range);
+        if (firstChild != BasicLouds.rangeEnd(range)) {
+            push(firstChild, BasicLouds.rangeEnd(range));
+            current = firstChild;
+            return true;
+        }
+
+        while (depth > 0) {
+            int next = nodes[depth - 1] + 1;
+            if (next < ends[depth - 1]) {
+                nodes[depth - 1] = next;
+                word.setCharAt(word.length() - 1, trie.labels.get(next)); // Переход к брату
+                current = next;
+                return true;
+            }
+            depth--; // Братья закончились, поднимаемся
+            word.setLength(word.length() - 1);
+        }
+        return false;
+    }
+
+    private void push(int node, int end) {
+        if (depth == nodes.length) {
+            nodes = Arrays.copyOf(nodes, depth * 2);
+            ends = Arrays.copyOf(ends, depth * 2);
+        }
+        nodes[depth] = node;
+        ends[depth] = end;
+        depth++;
+        word.append(trie.labels.get(node));
+    }
+}
@@ -0,0 +1,135 @@
+import java.util.*;
+
+/**
+ * Ленивый обход слов TrieLouds, совпадающих с шаблоном glob, в лексикографическом порядке.
+ *
+ * Обход в глубину, как в TrieLoudsIterator, но на каждом уровне стека хранится ещё множество
+ * состояний автомата шаблона (GlobPattern) после пути до текущего узла. Узел, на котором множество
+ * становится пустым, пропускается вместе с поддеревом; в детей узла спуск идёт, только если
+ * у автомата остались переходы. Если переход возможен только по одному символу,
+ * ребёнок находится двоичным поиском, а не перебором диапазона детей.
+ */
+final class TrieLoudsPatternIterator implements Iterator<String> {
+
+    private final TrieLouds trie;
+    private final GlobPattern pattern;
+    private final StringBuilder word = new StringBuilder();          // Путь от корня до текущего узла
+    private int[] nodes = new int[16];                              // Текущий узел на каждом уровне стека
+    private int[] ends = new int[16];                               // Конец диапазона братьев (не включительно)
+    private long[] states = new long[17];                           // states[d + 1] - состояния после узла nodes[d]
+    private int depth;                                              // Количество уровней в стеке
+    private String next;                                            // Следующее слово или null
+
+    TrieLoudsPatternIterator(TrieLouds trie, GlobPattern pattern) {
+        this.trie = trie;
+        this.pattern = pattern;
+        this.states[0] = pattern.initial();
+        // Пустое слово в дереве не хранится, поэтому корень не проверяется на совпадение
+        if (pattern.canContinue(states[0])) {
+            descend(0);
+        }
+        next = findNext();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    @Override
+    public String next() {
+        if (next == null) {
+            throw new NoSuchElementException();
+        }
+        String result = next;
+        next = findNext();
+        return result;
+    }
+
+    /**
+     * Спуститься в детей узла: на новый уровень ставится первый живой ребёнок
+     *
+     * @return false, если живых детей нет (уровень не добавляется)
+     */
+    private boolean descend(int node) {
+        long parentStates = states[depth];
+        int first;
+        int end;
+        int literal = pattern.singleLiteral(parentStates);
+        if (literal != -1) {
+            first = trie.findChildByChar(node, (char) literal);
+            end = first + 1;
+        } else {
+            long range = trie.childRange(node);
+            first = BasicLouds.rangeFirst(range);
+            end = BasicLouds.rangeEnd(range);
+        }
+        if (first == -1) {
+            return false;
+        }
+        if (depth == nodes.length) {
+            nodes = Arrays.copyOf(nodes, depth * 2);
+            ends = Arrays.copyOf(ends, depth * 2);
+            states = Arrays.copyOf(states, depth * 2 + 1);
+        }
+        ends[depth] = end;
+        word.append('\0');
+        depth++;
+        if (moveTo(first)) {
+            return true;
+        }
+        depth--;
+        word.setLength(word.length() - 1);
+        return false;
+    }
+
+    /**
+     * Поставить на верхний уровень первый узел из [from, ends) с непустым множеством состояний
+     */
+    private boolean moveTo(int from) {
+        long parentStates = states[depth - 1];
+        for (int node = from; node < ends[depth - 1]; node++) {
+            char ch = trie.labels.get(node);
+            long nodeStates = pattern.step(parentStates, ch);
+            if (nodeStates != 0) {
+                nodes[depth - 1] = node;
+                states[depth] = nodeStates;
+                word.setCharAt(depth - 1, ch);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Следующее совпадающее слово в прямом порядке обхода
+     */
+    private String findNext() {
+        while (depth > 0) {
+            // Текущий узел верхнего уровня ещё не выдан: он посещается сразу после перехода к нему
+            int node = nodes[depth - 1];
+            String match = pattern.isAccepting(states[depth]) && trie.isWordEnd(node) ? word.toString() : null;
+
+            if (!(pattern.canContinue(states[depth]) && descend(node))) {
+                advance();
+            }
+            if (match != null) {
+                return match;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Перейти к следующему живому брату текущего узла или предка
+     */
+    private void advance() {
+        while (depth > 0) {
+            if (moveTo(nodes[depth - 1] + 1)) {
+                return;
+            }
+            depth--; // Братья закончились, поднимаемся
+            word.setLength(depth);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Разделяемый обход слов TrieLouds для параллельных потоков и задач ForkJoin.
+ *
+ * Часть обхода - слово общего родителя (если он конец слова) и поддеревья непрерывного диапазона
+ * его детей [lo, hi). trySplit отдаёт первую половину диапазона вместе со словом родителя,
+ * а если остался один ребёнок - спускается в него, так что делить можно до отдельных ветвей.
+ * Внутри части слова перечисляются через TrieLoudsIterator в лексикографическом порядке,
+ * поэтому и весь обход упорядочен (SORTED по естественному порядку строк).
+ * Размер части точный (SIZED, SUBSIZED): слова поддеревьев диапазона считаются
+ * без перечисления, см. TrieLouds.subtreesWordCount.
+ */
+public class TrieLoudsSpliterator implements Spliterator<String> {
+
+    private static final int CHARACTERISTICS = ORDERED | SORTED | DISTINCT | NONNULL | IMMUTABLE | SIZED | SUBSIZED;
+
+    private final TrieLouds trie;
+    private String path;                                            // Путь от корня до родителя диапазона
+    private boolean parentWord;                                     // Слово родителя ещё не выдано
+    private int lo;                                                 // Следующий необойдённый ребёнок
+    private int hi;                                                 // Конец диапазона детей (не включительно)
+    private long remaining;                                         // Количество ещё не выданных слов
+    private TrieLoudsIterator current;                              // Обход поддерева ребёнка lo - 1
+
+    /**
+     * Обход поддерева узла node, путь до которого равен path (node = -1 - пустой обход)
+     */
+    TrieLoudsSpliterator(TrieLouds trie, int node, String path) {
+        this.trie = trie;
+        this.remaining = node == -1 ? 0 : trie.subtreeWordCount(node);
+        if (node != -1) {
+            enter(node, path);
+        }
+    }
+
+    private TrieLoudsSpliterator(TrieLouds trie, String path, boolean parentWord, int lo, int hi, long remaining) {
+        this.trie = trie;
+        this.path = path;
+        this.parentWord = parentWord;
+        this.lo = lo;
+        this.hi = hi;
+        this.remaining = remaining;
+    }
+
+    /**
+     * Сделать узел родителем диапазона: его слово и его дети
+     */
+    private void enter(int node, String nodePath) {
+        path = nodePath;
+        parentWord = trie.isWordEnd(node);
+        long range = trie.childRange(node);
+        lo = BasicLouds.rangeFirst(range);
+        hi = BasicLouds.rangeEnd(range);
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super String> action) {
+        if (parentWord) {
+            parentWord = false;
+            remaining--;
+            action.accept(path);
+            return true;
+        }
+        while (current == null || !current.hasNext()) {
+            if (lo >= hi) {
+                current = null;
+                return false;
+            }
+            current = new TrieLoudsIterator(trie, lo, path + trie.labels.get(lo));
+            lo++;
+        }
+        remaining--;
+        action.accept(current.next().toString());
+        return true;
+    }
+
+    @Override
+    public Spliterator<String> trySplit() {
+        if (current != null) {
+            return null; // Обход поддерева уже начат
+        }
+        // Единственный ребёнок без слова родителя - спускаемся, пока не появится что делить
+        while (!parentWord && hi - lo == 1) {
+            int child = lo;
+            enter(child, path + trie.labels.get(child));
+        }
+        if (hi - lo < 2 && !(parentWord && hi - lo == 1)) {
+            return null;
+        }
+
+        // При одном ребёнке отделяется только слово родителя
+        int mid = hi - lo == 1 ? lo : (lo + hi) >>> 1;
+        long prefixSize = (parentWord ? 1 : 0) + trie.subtreesWordCount(lo, mid);
+        TrieLoudsSpliterator prefix = new TrieLoudsSpliterator(trie, path, parentWord, lo, mid, prefixSize);
+        remaining -= prefixSize;
+        parentWord = false;
+        lo = mid;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return remaining;
+    }
+
+    @Override
+    public int characteristics() {
+        return CHARACTERISTICS;
+    }
+
+    @Override
+    public Comparator<? super String> getComparator() {
+        return null; // Естественный порядок строк
+    }
+}
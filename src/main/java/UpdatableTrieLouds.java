@@ -0,0 +1,221 @@
+import java.util.*;
+
+/**
+ * Изменяемый словарь в стиле LSM: неизменяемое префиксное дерево TrieLouds плюс небольшая дельта.
+ *
+ * Дельта состоит из добавленных слов, которых нет в базе, и "надгробий" - удалённых слов базы.
+ * Слово присутствует, если оно добавлено, или есть в базе и не удалено. Когда размер дельты
+ * достигает порога, база и дельта сливаются в новое поколение TrieLouds за один проход
+ * по отсортированным словам, дельта очищается.
+ *
+ * Класс не потокобезопасен; для обмена снимками между потоками см. DictionaryHolder.
+ */
+public class UpdatableTrieLouds {
+
+    private TrieLouds base;                                         // Текущее поколение
+    private final TreeSet<String> inserts = new TreeSet<>();        // Добавленные слова, которых нет в базе
+    private final TreeSet<String> deletes = new TreeSet<>();        // Удалённые слова базы
+    private final int mergeThreshold;                               // Размер дельты, при котором выполняется слияние
+    private int generation;                                         // Количество слияний
+
+    public UpdatableTrieLouds(TrieLouds base, int mergeThreshold) {
+        if (mergeThreshold < 1) {
+            throw new IllegalArgumentException("Порог слияния должен быть положительным: " + mergeThreshold);
+        }
+        this.base = Objects.requireNonNull(base);
+        this.mergeThreshold = mergeThreshold;
+    }
+
+    /**
+     * ========== ИЗМЕНЕНИЕ ==========
+     */
+
+    /**
+     * Добавить слово (пустые слова и null пропускаются)
+     *
+     * @return true, если слова не было
+     */
+    public boolean insert(String word) {
+        if (word == null || word.isEmpty()) {
+            return false;
+        }
+        boolean changed;
+        if (deletes.remove(word)) {
+            changed = true; // Слово базы снова присутствует
+        } else {
+            changed = !base.search(word) && inserts.add(word);
+        }
+        mergeIfNeeded();
+        return changed;
+    }
+
+    /**
+     * Удалить слово
+     *
+     * @return true, если слово было
+     */
+    public boolean delete(String word) {
+        if (word == null || word.isEmpty()) {
+            return false;
+        }
+        boolean changed;
+        if (inserts.remove(word)) {
+            changed = true;
+        } else {
+            changed = base.search(word) && deletes.add(word);
+        }
+        mergeIfNeeded();
+        return changed;
+    }
+
+    private void mergeIfNeeded() {
+        if (getDeltaSize() >= mergeThreshold) {
+            merge();
+        }
+    }
+
+    /**
+     * Слить базу и дельту в новое поколение TrieLouds
+     */
+    public void merge() {
+        if (getDeltaSize() == 0) {
+            return;
+        }
+        base = TrieLouds.buildFromSortedWords(iterator(""));
+        inserts.clear();
+        deletes.clear();
+        generation++;
+    }
+
+    /**
+     * ========== ЗАПРОСЫ ==========
+     */
+
+    /**
+     * Поиск слова в базе с учётом дельты
+     */
+    public boolean search(String word) {
+        return inserts.contains(word) || (!deletes.contains(word) && base.search(word));
+    }
+
+    /**
+     * Проверить, есть ли слова с данным префиксом
+     */
+    public boolean startsWith(String prefix) {
+        String insert = inserts.ceiling(prefix);
+        if (insert != null && insert.startsWith(prefix)) {
+            return true;
+        }
+        // Удалённых слов не больше размера дельты, поэтому перебор короткий
+        Iterator<CharSequence> it = base.wordIterator(prefix);
+        while (it.hasNext()) {
+            if (!deletes.contains(it.next().toString())) {
+                return true;
+            }
+        }
+        return prefix.isEmpty(); // Как и в TrieLouds, пустой префикс есть всегда
+    }
+
+    /**
+     * Получить все слова с данным префиксом в лексикографическом порядке
+     */
+    public List<String> getWordsWithPrefix(String prefix) {
+        List<String> words = new ArrayList<>();
+        iterator(prefix).forEachRemaining(words::add);
+        return words;
+    }
+
+    /**
+     * Получить все слова в лексикографическом порядке
+     */
+    public List<String> getAllWords() {
+        return getWordsWithPrefix("");
+    }
+
+    /**
+     * Ленивое слияние слов базы (без удалённых) и добавленных слов с данным префиксом
+     */
+    public Iterator<String> iterator(String prefix) {
+        Iterator<CharSequence> baseWords = base.wordIterator(prefix);
+        Iterator<String> insertedWords = inserts.tailSet(prefix, true).iterator();
+
+        return new Iterator<String>() {
+            private String nextBase = advanceBase();
+            private String nextInsert = advanceInsert();
+
+            private String advanceBase() {
+                while (baseWords.hasNext()) {
+                    String word = baseWords.next().toString();
+                    if (!deletes.contains(word)) {
+                        return word;
+                    }
+                }
+                return null;
+            }
+
+            private String advanceInsert() {
+                if (insertedWords.hasNext()) {
+                    String word = insertedWords.next();
+                    if (word.startsWith(prefix)) {
+                        return word;
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return nextBase != null || nextInsert != null;
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                // Множества не пересекаются, поэтому равных слов нет
+                String word;
+                if (nextInsert == null || (nextBase != null && nextBase.compareTo(nextInsert) < 0)) {
+                    word = nextBase;
+                    nextBase = advanceBase();
+                } else {
+                    word = nextInsert;
+                    nextInsert = advanceInsert();
+                }
+                return word;
+            }
+        };
+    }
+
+    /**
+     * ========== СОСТОЯНИЕ ==========
+     */
+
+    /**
+     * Количество слов с учётом дельты
+     */
+    public int getWordCount() {
+        return base.getWordCount() + inserts.size() - deletes.size();
+    }
+
+    /**
+     * Размер дельты: добавленные слова и надгробия
+     */
+    public int getDeltaSize() {
+        return inserts.size() + deletes.size();
+    }
+
+    /**
+     * Текущее поколение базы (без учёта дельты)
+     */
+    public TrieLouds getBase() {
+        return base;
+    }
+
+    /**
+     * Количество выполненных слияний
+     */
+    public int getGeneration() {
+        return generation;
+    }
+}
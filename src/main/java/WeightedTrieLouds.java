@@ -0,0 +1,220 @@
+import java.io.IOException;
+import java.nio.LongBuffer;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Префиксное дерево LOUDS с весами слов для автодополнения top-K.
+ *
+ * Вес слова хранится по его номеру (TrieLouds.lookupId), для каждого узла заранее вычисляется
+ * наибольший вес в его поддереве. Запрос topK обходит поддерево префикса в порядке убывания этой
+ * оценки (best-first) и останавливается после k слов, поэтому время зависит от k и глубины,
+ * а не от размера поддерева.
+ * save() и toOffHeap() переносят дерево вместе с весами и наибольшими весами поддеревьев.
+ */
+public class WeightedTrieLouds extends TrieLouds {
+
+    protected LongBuffer weights;                                   // Вес слова по его номеру
+    protected LongBuffer maxScores;                                 // Наибольший вес слова в поддереве узла
+
+    /**
+     * Кандидат в очереди обхода: поддерево узла или само слово узла
+     */
+    private static final class Candidate {
+        final int node;
+        final long score;
+        final boolean word;
+
+        Candidate(int node, long score, boolean word) {
+            this.node = node;
+            this.score = score;
+            this.word = word;
+        }
+    }
+
+    // Больший вес раньше; при равенстве слово раньше поддерева, затем меньший номер узла
+    private static final Comparator<Candidate> ORDER = (a, b) -> {
+        if (a.score != b.score) {
+            return Long.compare(b.score, a.score);
+        }
+        if (a.word != b.word) {
+            return a.word ? -1 : 1;
+        }
+        return Integer.compare(a.node, b.node);
+    };
+
+    private WeightedTrieLouds(TrieLouds trie, long[] weights) {
+        super(trie.bits, trie.labels, trie.wordEnds);
+        long[] maxScores = new long[nodeCount];
+
+        // Собственный вес узла; id - номер слова, растёт вместе с номером узла
+        int id = 0;
+        for (int node = 0; node < nodeCount; node++) {
+            maxScores[node] = isWordEnd(node) ? weights[id++] : Long.MIN_VALUE;
+        }
+
+        // Дети нумеруются позже родителей, поэтому проход с конца поднимает максимумы к корню
+        for (int node = nodeCount - 1; node > 0; node--) {
+            int parent = parent(node);
+            if (maxScores[node] > maxScores[parent]) {
+                maxScores[parent] = maxScores[node];
+            }
+        }
+        this.weights = LongBuffer.wrap(weights);
+        this.maxScores = LongBuffer.wrap(maxScores);
+    }
+
+    private WeightedTrieLouds(TrieLouds trie, LongBuffer weights, LongBuffer maxScores) {
+        super(trie.bits, trie.labels, trie.wordEnds);
+        this.weights = weights;
+        this.maxScores = maxScores;
+    }
+
+    /**
+     * Чтение дерева из файла LOUDS: веса и наибольшие веса поддеревьев остаются в отображённой памяти
+     */
+    WeightedTrieLouds(LoudsFile.Reader in) throws IOException {
+        super(in);
+        int weightCount = in.readInt();
+        in.readInt(); // Зарезервировано
+        weights = in.readLongs(weightCount);
+        maxScores = in.readLongs(nodeCount);
+        if (weightCount != getWordCount()) {
+            throw new IOException("Количество весов не совпадает с количеством слов");
+        }
+    }
+
+    /**
+     * Открыть дерево, ранее сохранённое методом save, через отображение файла в память
+     */
+    public static WeightedTrieLouds map(Path path) throws IOException {
+        BasicLouds louds = LoudsFile.map(path);
+        if (!(louds instanceof WeightedTrieLouds)) {
+            louds.close();
+            throw new IOException("Файл не содержит взвешенное префиксное дерево LOUDS: " + path);
+        }
+        return (WeightedTrieLouds) louds;
+    }
+
+    /**
+     * Построение из словаря "слово -> вес" (пустые слова и null пропускаются)
+     */
+    public static WeightedTrieLouds build(Map<String, Long> weightedWords) {
+        TreeMap<String, Long> sorted = new TreeMap<>();
+        for (Map.Entry<String, Long> entry : weightedWords.entrySet()) {
+            if (entry.getKey() != null && !entry.getKey().isEmpty()) {
+                sorted.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        TrieLouds trie = TrieLouds.buildFromSortedWords(sorted.keySet().iterator());
+        long[] weights = new long[trie.getWordCount()];
+        for (Map.Entry<String, Long> entry : sorted.entrySet()) {
+            weights[trie.lookupId(entry.getKey())] = entry.getValue();
+        }
+        return new WeightedTrieLouds(trie, weights);
+    }
+
+    /**
+     * ========== ВЗВЕШЕННОЕ АВТОДОПОЛНЕНИЕ ==========
+     */
+
+    /**
+     * Вес слова
+     *
+     * @throws NoSuchElementException если слова нет в дереве
+     */
+    public long getWeight(String word) {
+        int id = lookupId(word);
+        if (id == -1) {
+            throw new NoSuchElementException("Слова нет в дереве: " + word);
+        }
+        return weights.get(id);
+    }
+
+    @Override
+    public Map<String, Long> memoryBreakdown() {
+        Map<String, Long> breakdown = super.memoryBreakdown();
+        breakdown.put("weights", (long) weights.capacity() * Long.BYTES);      // Веса слов
+        breakdown.put("maxScores", (long) maxScores.capacity() * Long.BYTES);  // Наибольшие веса поддеревьев
+        return breakdown;
+    }
+
+    /**
+     * Наибольший вес слова в поддереве узла (Long.MIN_VALUE для поддерева без слов)
+     */
+    public long getMaxScore(int nodeNumber) {
+        return maxScores.get(nodeNumber);
+    }
+
+    /**
+     * Не более k слов с данным префиксом в порядке убывания веса
+     * (при равных весах - в порядке номеров узлов: более короткие слова раньше)
+     */
+    public List<String> topK(String prefix, int k) {
+        List<String> result = new ArrayList<>();
+        int prefixNode = findNodeByPrefix(prefix);
+        if (prefixNode == -1 || k <= 0) {
+            return result;
+        }
+
+        PriorityQueue<Candidate> queue = new PriorityQueue<>(ORDER);
+        queue.add(new Candidate(prefixNode, maxScores.get(prefixNode), false));
+        while (!queue.isEmpty() && result.size() < k) {
+            Candidate candidate = queue.poll();
+            int node = candidate.node;
+            if (candidate.word) {
+                result.add(wordForNode(node));
+                continue;
+            }
+
+            // Раскрываем поддерево: слово самого узла и поддеревья детей со своими оценками
+            if (isWordEnd(node)) {
+                queue.add(new Candidate(node, weights.get(wordEnds.rank1(node)), true));
+            }
+            long range = childRange(node);
+            for (int child = rangeFirst(range); child < rangeEnd(range); child++) {
+                queue.add(new Candidate(child, maxScores.get(child), false));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * ========== ХРАНЕНИЕ ВНЕ КУЧИ И ЗАПИСЬ В ФАЙЛ ==========
+     */
+
+    /**
+     * Копия дерева, у которой префиксное дерево, веса и наибольшие веса поддеревьев лежат вне кучи
+     */
+    @Override
+    public WeightedTrieLouds toOffHeap() {
+        TrieLouds trie = super.toOffHeap();
+        WeightedTrieLouds copy = new WeightedTrieLouds(trie, trie.storage.copyOf(weights), trie.storage.copyOf(maxScores));
+        copy.storage = trie.storage;
+        return copy;
+    }
+
+    @Override
+    public void close() {
+        if (storage != null) {
+            weights = null;
+            maxScores = null;
+        }
+        super.close();
+    }
+
+    @Override
+    protected int fileKind() {
+        return LoudsFile.KIND_WEIGHTED;
+    }
+
+    @Override
+    protected void writeSections(LoudsFile.Writer out) throws IOException {
+        super.writeSections(out);
+        out.writeInt(weights.capacity());
+        out.writeInt(0); // Зарезервировано
+        out.writeLongs(weights);
+        out.writeLongs(maxScores);
+    }
+}
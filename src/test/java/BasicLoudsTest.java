@@ -1,7 +1,11 @@
+import org.junit.Rule;
 import org.junit.Test;
 import org.junit.Before;
+import org.junit.rules.TemporaryFolder;
 import static org.junit.Assert.*;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
 
 /**
@@ -9,6 +13,9 @@ import java.util.*;
  */
 public class BasicLoudsTest {
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     private BasicLouds louds;
     //private BasicLouds.TreeNode root;
 
@@ -128,6 +135,23 @@ public class BasicLoudsTest {
         assertEquals("child(2, 2) должен вернуть 5", 5, louds.child(2, 2));
     }
 
+    @Test
+    public void testChildRange() {
+        long range = louds.childRange(0);
+        assertEquals("Дети корня: [1, 4)", 1, BasicLouds.rangeFirst(range));
+        assertEquals(4, BasicLouds.rangeEnd(range));
+
+        range = louds.childRange(2);
+        assertEquals("Дети узла 2: [4, 6)", 4, BasicLouds.rangeFirst(range));
+        assertEquals(6, BasicLouds.rangeEnd(range));
+
+        for (int node = 0; node < louds.getNodeCount(); node++) {
+            range = louds.childRange(node);
+            assertEquals(louds.degree(node), BasicLouds.rangeEnd(range) - BasicLouds.rangeFirst(range));
+            assertEquals(louds.isLeaf(node), BasicLouds.rangeFirst(range) == BasicLouds.rangeEnd(range));
+        }
+    }
+
     @Test
     public void testChildRank() {
         // Тестируем childRank
@@ -138,6 +162,32 @@ public class BasicLoudsTest {
         assertEquals("childRank(5) должен быть 2", 2, louds.childRank(5));
     }
 
+    @Test
+    public void testSaveAndMap() throws IOException {
+        Path file = folder.newFile("basic.louds").toPath();
+        louds.save(file);
+        BasicLouds mapped = LoudsFile.map(file);
+        assertEquals(louds.getLoudsString(), mapped.getLoudsString());
+        for (int node = 0; node < louds.getNodeCount(); node++) {
+            assertEquals(louds.parent(node), mapped.parent(node));
+            assertEquals(louds.degree(node), mapped.degree(node));
+        }
+        try {
+            mapped.getNodeData(1);
+            fail("Данные узлов в файл не записываются");
+        } catch (UnsupportedOperationException expected) {
+            // Явная ошибка вместо IndexOutOfBoundsException
+        }
+        mapped.close();
+    }
+
+    @Test(expected = IOException.class)
+    public void testTrieMapRejectsBasicLouds() throws IOException {
+        Path file = folder.newFile("structure.louds").toPath();
+        louds.save(file);
+        TrieLouds.map(file);
+    }
+
     @Test
     public void testEdgeCases() {
         // Тестируем граничные случаи
@@ -147,6 +197,8 @@ public class BasicLoudsTest {
         assertEquals("select1(100) должен быть -1", -1, louds.select1(100));
         assertEquals("select0(0) должен быть -1", -1, louds.select0(0));
         assertEquals("prevSibling(0) должен быть -1", -1, louds.prevSibling(0));
+        assertEquals("nextSibling(0) должен быть -1", -1, louds.nextSibling(0));
+        assertEquals("child(-1, 1) должен быть -1", -1, louds.child(-1, 1));
         assertEquals("child(1, 0) должен быть -1", -1, louds.child(1, 0));
         assertEquals("childRank(0) должен быть -1", -1, louds.childRank(0));
     }
@@ -0,0 +1,65 @@
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Тесты для класса DictionaryHolder
+ */
+public class DictionaryHolderTest {
+
+    @Test
+    public void testRebuildSwapsSnapshot() throws Exception {
+        try (DictionaryHolder holder = new DictionaryHolder(TrieLouds.buildFromWordList(Arrays.asList("cat", "dog")))) {
+            TrieLouds old = holder.get();
+            assertEquals(-1, holder.getLastBuildNanos());
+
+            TrieLouds rebuilt = holder.rebuild(Arrays.asList("cat", "cow")).get();
+            assertSame(rebuilt, holder.get());
+            assertTrue(holder.search("cow"));
+            assertFalse(holder.search("dog"));
+            assertTrue("Старый снимок не меняется", old.search("dog"));
+
+            assertEquals(1, holder.getSwapCount());
+            assertTrue(holder.getLastBuildNanos() >= 0);
+            assertTrue(holder.getLastSwapLatencyNanos() >= holder.getLastBuildNanos());
+        }
+    }
+
+    @Test
+    public void testOlderBuildDoesNotReplaceNewer() throws Exception {
+        // Исполнитель, задачи которого запускаются вручную в любом порядке
+        List<Runnable> tasks = new ArrayList<>();
+        DictionaryHolder holder = new DictionaryHolder(TrieLouds.buildFromWordList(Collections.singletonList("a")), tasks::add);
+
+        CompletableFuture<TrieLouds> first = holder.rebuild(Collections.singletonList("first"));
+        CompletableFuture<TrieLouds> second = holder.rebuild(Collections.singletonList("second"));
+        tasks.get(1).run();
+        tasks.get(0).run();
+
+        assertTrue(first.get().search("first"));
+        assertSame(second.get(), holder.get());
+        assertEquals(1, holder.getSwapCount());
+    }
+
+    @Test
+    public void testFailedBuildKeepsSnapshot() throws Exception {
+        try (DictionaryHolder holder = new DictionaryHolder(TrieLouds.buildFromWordList(Collections.singletonList("a")))) {
+            TrieLouds old = holder.get();
+            CompletableFuture<TrieLouds> failed = holder.rebuild(() -> {
+                throw new IllegalStateException("Источник слов недоступен");
+            });
+            try {
+                failed.get();
+                fail("Ожидалась ошибка построения");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+            assertSame(old, holder.get());
+            assertEquals(1, holder.getFailedBuildCount());
+            assertEquals(0, holder.getSwapCount());
+        }
+    }
+}
@@ -0,0 +1,62 @@
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+/**
+ * Тесты для класса HybridTrieLouds
+ */
+public class HybridTrieLoudsTest {
+
+    private static void assertSameAnswers(TrieLouds expected, HybridTrieLouds hybrid, List<String> queries) {
+        for (String query : queries) {
+            assertEquals(query, expected.search(query), hybrid.search(query));
+            assertEquals(query, expected.startsWith(query), hybrid.startsWith(query));
+        }
+    }
+
+    @Test
+    public void testEveryCutoffMatchesTrieLouds() {
+        List<String> words = TrieLoudsTest.randomWords(3000, 1, 7, "abcdefghij", 22);
+        TrieLouds trie = TrieLouds.buildFromWordList(words);
+        List<String> queries = new ArrayList<>(words);
+        queries.addAll(TrieLoudsTest.randomWords(3000, 0, 8, "abcdefghijk", 23));
+
+        for (int cutoff = 0; cutoff <= 9; cutoff++) {
+            HybridTrieLouds hybrid = HybridTrieLouds.buildWithCutoff(trie, cutoff);
+            assertEquals(Math.min(cutoff, 8), hybrid.getCutoff()); // Корень и 7 уровней символов
+            assertSameAnswers(trie, hybrid, queries);
+        }
+    }
+
+    @Test
+    public void testSizeRatioChoosesUpperLevels() {
+        List<String> words = TrieLoudsTest.randomWords(50_000, 3, 10, "abcdefghijklmnopqrstuvwxyz", 24);
+        TrieLouds trie = TrieLouds.buildFromWordList(words);
+        HybridTrieLouds hybrid = HybridTrieLouds.buildWithSizeRatio(trie, 16);
+        assertTrue("Верхние уровни почти полные", hybrid.getCutoff() >= 1);
+        assertTrue(HybridTrieLouds.buildWithSizeRatio(trie, 1_000_000).getCutoff() < hybrid.getCutoff());
+        assertSameAnswers(trie, hybrid, TrieLoudsTest.randomWords(5000, 1, 10, "abcdefghijklmnopqrstuvwxyz", 25));
+        assertSameAnswers(trie, hybrid, words.subList(0, 5000));
+    }
+
+    @Test
+    public void testWideCharactersStaySparse() {
+        List<String> words = Arrays.asList("ab", "aЖc", "abd", "b", "Жx");
+        TrieLouds trie = TrieLouds.buildFromWordList(words);
+        assertEquals("Символ 0x416 на глубине 1: плотных уровней нет", 0, HybridTrieLouds.buildWithCutoff(trie, 3).getCutoff());
+
+        List<String> deeper = Arrays.asList("ab", "aЖc", "abd", "b");
+        HybridTrieLouds hybrid = HybridTrieLouds.buildWithCutoff(TrieLouds.buildFromWordList(deeper), 3);
+        assertEquals(1, hybrid.getCutoff());
+        assertSameAnswers(TrieLouds.buildFromWordList(deeper), hybrid, Arrays.asList("aЖc", "aЖ", "abd", "ab", "a", "b", "c"));
+    }
+
+    @Test
+    public void testEmptyDictionary() {
+        HybridTrieLouds hybrid = HybridTrieLouds.buildFromWordList(Collections.<String>emptyList());
+        assertFalse(hybrid.search("a"));
+        assertTrue(hybrid.startsWith(""));
+        assertFalse(hybrid.search(""));
+    }
+}
@@ -0,0 +1,80 @@
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+/**
+ * Тесты для класса LoudsRoutingTable
+ */
+public class LoudsRoutingTableTest {
+
+    @Test
+    public void testCidrRoutes() {
+        LoudsRoutingTable<String> table = new LoudsRoutingTable.Builder<String>()
+                .addCidr("10.0.0.0/8", "corp")
+                .addCidr("10.1.0.0/16", "lab")
+                .addCidr("10.1.2.0/24", "rack")
+                .addCidr("192.168.0.0/16", "home")
+                .addCidr("10.1.0.0/16", "lab2")
+                .build();
+
+        assertEquals(4, table.size());
+        assertEquals("rack", table.longestPrefixMatch(LoudsRoutingTable.parseIpv4("10.1.2.3")));
+        assertEquals("lab2", table.longestPrefixMatch(LoudsRoutingTable.parseIpv4("10.1.3.3")));
+        assertEquals("corp", table.longestPrefixMatch(LoudsRoutingTable.parseIpv4("10.200.0.1")));
+        assertEquals("home", table.longestPrefixMatch(LoudsRoutingTable.parseIpv4("192.168.255.255")));
+        assertNull(table.longestPrefixMatch(LoudsRoutingTable.parseIpv4("8.8.8.8")));
+    }
+
+    @Test
+    public void testDefaultRouteAndHostRoutes() {
+        LoudsRoutingTable<Integer> table = new LoudsRoutingTable.Builder<Integer>()
+                .addCidr("0.0.0.0/0", 0)
+                .addCidr("255.255.255.255/32", 32)
+                .addCidr("128.0.0.0/1", 1)
+                .build();
+        assertEquals(Integer.valueOf(32), table.longestPrefixMatch(-1));
+        assertEquals(Integer.valueOf(1), table.longestPrefixMatch(LoudsRoutingTable.parseIpv4("200.0.0.1")));
+        assertEquals(Integer.valueOf(0), table.longestPrefixMatch(LoudsRoutingTable.parseIpv4("1.2.3.4")));
+    }
+
+    @Test
+    public void testMatchesLinearScan() {
+        Random random = new Random(26);
+        LoudsRoutingTable.Builder<Integer> builder = new LoudsRoutingTable.Builder<>();
+        Map<String, Integer> routes = new HashMap<>();
+        for (int i = 0; i < 3000; i++) {
+            long prefix = random.nextLong();
+            int length = 1 + random.nextInt(64);
+            builder.add(prefix, length, i);
+            routes.put(bitString(prefix, length), i);
+        }
+        LoudsRoutingTable<Integer> table = builder.build();
+
+        for (int q = 0; q < 3000; q++) {
+            long key = random.nextLong();
+            // Часть ключей - продолжения известных префиксов
+            if (q % 2 == 0) {
+                key = (key >>> 20) | (random.nextLong() & 0xFFFFF00000000000L);
+            }
+            Integer expected = null;
+            for (int length = 64; length >= 1 && expected == null; length--) {
+                expected = routes.get(bitString(key, length));
+            }
+            assertEquals(Long.toHexString(key), expected, table.longestPrefixMatch(key));
+        }
+    }
+
+    private static String bitString(long value, int length) {
+        StringBuilder bits = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            bits.append((value << i) < 0 ? '1' : '0');
+        }
+        return bits.toString();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsLongIpv4Prefix() {
+        new LoudsRoutingTable.Builder<String>().addCidr("10.0.0.0/33", "bad");
+    }
+}
@@ -0,0 +1,62 @@
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Тесты для класса ParallelTrieLoudsBuilder
+ */
+public class ParallelTrieLoudsBuilderTest {
+
+    @Test
+    public void testSameStructureAsSequentialBuild() {
+        List<String> words = TrieLoudsTest.randomWords(20_000, 1, 10, "abcdefghijklmnop", 20);
+        words.add(null);
+        words.add("");
+        TrieLouds sequential = TrieLouds.buildFromWordList(words);
+
+        for (int parallelism : new int[]{1, 3, 8}) {
+            TrieLouds parallel = ParallelTrieLoudsBuilder.buildFromWordList(words, parallelism);
+            assertEquals(sequential.getNodeCount(), parallel.getNodeCount());
+            assertEquals(sequential.getLoudsString(), parallel.getLoudsString());
+            for (int node = 0; node < sequential.getNodeCount(); node++) {
+                assertEquals(sequential.getNodeData(node), parallel.getNodeData(node));
+                assertEquals(sequential.isWordEnd(node), parallel.isWordEnd(node));
+            }
+        }
+    }
+
+    @Test
+    public void testSkewedFirstCharacters() {
+        // Почти все слова начинаются с одного символа: части не могут быть равными
+        List<String> words = TrieLoudsTest.randomWords(5000, 1, 8, "ab", 21);
+        for (int i = 0; i < words.size(); i += 100) {
+            words.set(i, "z" + words.get(i));
+        }
+        TrieLouds parallel = ParallelTrieLoudsBuilder.buildFromWordList(words, 4);
+        assertEquals(TrieLouds.buildFromWordList(words).getLoudsString(), parallel.getLoudsString());
+    }
+
+    @Test
+    public void testEmptyInput() {
+        TrieLouds empty = ParallelTrieLoudsBuilder.buildFromWordList(Collections.<String>emptyList(), 2);
+        assertEquals(1, empty.getNodeCount());
+        assertEquals("10 0", empty.getLoudsString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsUnsortedInput() {
+        List<String> words = new ArrayList<>();
+        for (char c = 'a'; c <= 'z'; c++) {
+            words.add(String.valueOf(c));
+        }
+        Collections.reverse(words);
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            ParallelTrieLoudsBuilder.buildFromSortedWords(words, pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Тесты для класса PatriciaTrieLouds
+ */
+public class PatriciaTrieLoudsTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testChainsAreCompressed() {
+        PatriciaTrieLouds trie = PatriciaTrieLouds.buildFromWordList(
+                Arrays.asList("romane", "romanus", "romulus", "rubens", "ruber", "rubicon", "rubicundus"));
+        // Корень -> r -> {om -> {an -> {e, us}, ulus}, ub -> {e -> {ns, r}, ic -> {on, undus}}}
+        assertEquals(14, trie.getNodeCount());
+        assertEquals("r", trie.getNodeData(1));
+        assertEquals("om", trie.getNodeData(2));
+        assertEquals("ub", trie.getNodeData(3));
+        assertTrue(trie.search("rubicon"));
+        assertFalse(trie.search("rubic"));
+        assertFalse(trie.search("rubiconx"));
+        assertTrue(trie.startsWith("rubic"));
+        assertTrue(trie.startsWith("rom"));
+        assertFalse(trie.startsWith("rox"));
+    }
+
+    @Test
+    public void testWordEndingInsideChain() {
+        PatriciaTrieLouds trie = PatriciaTrieLouds.buildFromWordList(Arrays.asList("app", "application", "apple", "app"));
+        assertTrue(trie.search("app"));
+        assertTrue(trie.search("apple"));
+        assertFalse(trie.search("appl"));
+        assertTrue(trie.startsWith("appli"));
+        assertEquals(Arrays.asList("app", "apple", "application"), trie.getAllWords());
+    }
+
+    @Test
+    public void testMatchesTrieLouds() {
+        List<String> words = TrieLoudsTest.randomWords(5000, 1, 12, "abcd", 9);
+        TrieLouds louds = TrieLouds.buildFromWordList(words);
+        PatriciaTrieLouds patricia = PatriciaTrieLouds.buildFromWordList(words);
+
+        assertEquals(louds.getAllWords(), patricia.getAllWords());
+        assertTrue("Узлов должно стать меньше", patricia.getNodeCount() < louds.getNodeCount());
+        for (String word : TrieLoudsTest.randomWords(3000, 0, 13, "abcde", 10)) {
+            assertEquals(word, louds.search(word), patricia.search(word));
+            assertEquals(word, louds.startsWith(word), patricia.startsWith(word));
+        }
+    }
+
+    @Test
+    public void testEmptyDictionary() {
+        PatriciaTrieLouds trie = PatriciaTrieLouds.buildFromWordList(Collections.<String>emptyList());
+        assertEquals(1, trie.getNodeCount());
+        assertFalse(trie.search("a"));
+        assertTrue(trie.startsWith(""));
+        assertTrue(trie.getAllWords().isEmpty());
+    }
+
+    @Test
+    public void testSaveAndMap() throws IOException {
+        List<String> words = TrieLoudsTest.randomWords(5000, 1, 12, "abcd", 26);
+        PatriciaTrieLouds built = PatriciaTrieLouds.buildFromWordList(words);
+        Path file = folder.newFile("patricia.louds").toPath();
+        built.save(file);
+
+        PatriciaTrieLouds mapped = PatriciaTrieLouds.map(file);
+        try {
+            assertEquals(built.getNodeCount(), mapped.getNodeCount());
+            assertEquals(built.getAllWords(), mapped.getAllWords());
+            for (int node = 1; node < built.getNodeCount(); node += 7) {
+                assertEquals(built.getNodeData(node), mapped.getNodeData(node));
+            }
+            for (String word : TrieLoudsTest.randomWords(1000, 1, 12, "abcde", 27)) {
+                assertEquals(word, built.search(word), mapped.search(word));
+                assertEquals(word, built.startsWith(word), mapped.startsWith(word));
+            }
+        } finally {
+            mapped.close();
+        }
+    }
+
+    @Test
+    public void testOffHeapCopy() {
+        List<String> words = TrieLoudsTest.randomWords(5000, 1, 12, "abcd", 28);
+        PatriciaTrieLouds heap = PatriciaTrieLouds.buildFromWordList(words);
+        PatriciaTrieLouds offHeap = heap.toOffHeap();
+        try {
+            assertTrue("Метки лежат вне кучи", offHeap.labelArena.isDirect());
+            assertEquals(heap.getNodeData(1), offHeap.getNodeData(1));
+            assertEquals(heap.getAllWords(), offHeap.getAllWords());
+            assertEquals(heap.memoryBreakdown(), offHeap.memoryBreakdown());
+        } finally {
+            offHeap.close();
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testMapRejectsOtherStructure() throws IOException {
+        Path file = folder.newFile("trie.louds").toPath();
+        TrieLouds.buildFromWordList(Arrays.asList("abc", "abd")).save(file);
+        PatriciaTrieLouds.map(file);
+    }
+}
@@ -0,0 +1,188 @@
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+/**
+ * Тесты для класса SuccinctBitVector
+ */
+public class SuccinctBitVectorTest {
+
+    /**
+     * Случайный вектор заданной длины и плотности единиц
+     */
+    private static boolean[] randomBits(Random random, int length, double density) {
+        boolean[] bits = new boolean[length];
+        for (int i = 0; i < length; i++) {
+            bits[i] = random.nextDouble() < density;
+        }
+        return bits;
+    }
+
+    private static SuccinctBitVector toVector(boolean[] bits) {
+        long[] words = new long[(bits.length + 63) / 64];
+        for (int i = 0; i < bits.length; i++) {
+            if (bits[i]) {
+                words[i / 64] |= 1L << i;
+            }
+        }
+        return new SuccinctBitVector(words, bits.length);
+    }
+
+    @Test
+    public void testRankMatchesNaiveCount() {
+        Random random = new Random(7);
+        int[] lengths = {0, 1, 63, 64, 65, 511, 512, 2047, 2048, 2049, 10_000, 70_000};
+        double[] densities = {0.0, 0.05, 0.5, 0.95, 1.0};
+
+        for (int length : lengths) {
+            for (double density : densities) {
+                boolean[] bits = randomBits(random, length, density);
+                SuccinctBitVector vector = toVector(bits);
+
+                int ones = 0;
+                for (int i = 0; i < length; i++) {
+                    assertEquals("rank1(" + i + ") при длине " + length, ones, vector.rank1(i));
+                    assertEquals("get(" + i + ") при длине " + length, bits[i], vector.get(i));
+                    if (bits[i]) ones++;
+                }
+                assertEquals("rank1(length) должен быть равен числу единиц", ones, vector.rank1(length));
+                assertEquals("rank0(length) должен быть равен числу нулей", length - ones, vector.rank0(length));
+                assertEquals(ones, vector.countOnes());
+            }
+        }
+    }
+
+    @Test
+    public void testSelectIsInverseOfRank() {
+        Random random = new Random(11);
+        int[] lengths = {1, 64, 65, 2048, 2049, 9_000, 100_000};
+        double[] densities = {0.001, 0.05, 0.5, 0.95, 0.999};
+
+        for (int length : lengths) {
+            for (double density : densities) {
+                boolean[] bits = randomBits(random, length, density);
+                SuccinctBitVector vector = toVector(bits);
+
+                int ones = 0;
+                int zeros = 0;
+                for (int i = 0; i < length; i++) {
+                    if (bits[i]) {
+                        assertEquals("select1(" + ones + ") при длине " + length, i, vector.select1(ones++));
+                    } else {
+                        assertEquals("select0(" + zeros + ") при длине " + length, i, vector.select0(zeros++));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSelectOnSparseVector() {
+        // Единицы далеко друг от друга: между выборками много суперблоков
+        int length = 5_000_000;
+        long[] words = new long[(length + 63) / 64];
+        List<Integer> positions = new ArrayList<>();
+        for (int i = 0; i < length; i += 997) {
+            words[i / 64] |= 1L << i;
+            positions.add(i);
+        }
+        SuccinctBitVector vector = new SuccinctBitVector(words, length);
+        for (int k = 0; k < positions.size(); k++) {
+            assertEquals(positions.get(k).intValue(), vector.select1(k));
+        }
+    }
+
+    @Test
+    public void testNextZero() {
+        Random random = new Random(9);
+        for (int length : new int[]{1, 63, 64, 65, 300, 5000}) {
+            for (double density : new double[]{0.5, 0.99, 1.0}) {
+                SuccinctBitVector vector = toVector(randomBits(random, length, density));
+                int expected = length;
+                for (int from = length; from >= 0; from--) {
+                    if (from < length && !vector.get(from)) {
+                        expected = from;
+                    }
+                    assertEquals("length=" + length + ", from=" + from, expected, vector.nextZero(from));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSelectInWord() {
+        Random random = new Random(3);
+        for (int t = 0; t < 10_000; t++) {
+            long x = random.nextLong() & random.nextLong();
+            int r = 0;
+            for (int bit = 0; bit < 64; bit++) {
+                if ((x & (1L << bit)) != 0) {
+                    assertEquals(bit, SuccinctBitVector.selectInWord(x, r++));
+                }
+            }
+        }
+        assertEquals(63, SuccinctBitVector.selectInWord(-1L, 63));
+        assertEquals(63, SuccinctBitVector.selectInWord(Long.MIN_VALUE, 0));
+    }
+
+    @Test
+    public void testBuilderMatchesPackedWords() {
+        Random random = new Random(5);
+        for (int t = 0; t < 50; t++) {
+            BitVectorBuilder builder = new BitVectorBuilder(1);
+            List<Boolean> expected = new ArrayList<>();
+            int runs = random.nextInt(3000);
+            for (int r = 0; r < runs; r++) {
+                switch (random.nextInt(3)) {
+                    case 0:
+                        boolean bit = random.nextBoolean();
+                        builder.append(bit);
+                        expected.add(bit);
+                        break;
+                    case 1:
+                        int ones = random.nextInt(150);
+                        builder.appendOnes(ones);
+                        for (int i = 0; i < ones; i++) expected.add(true);
+                        break;
+                    default:
+                        long value = random.nextLong();
+                        int count = random.nextInt(65);
+                        builder.appendBits(value, count);
+                        for (int i = 0; i < count; i++) expected.add((value & (1L << i)) != 0);
+                        break;
+                }
+            }
+
+            boolean[] bits = new boolean[expected.size()];
+            for (int i = 0; i < bits.length; i++) {
+                bits[i] = expected.get(i);
+            }
+            SuccinctBitVector built = builder.build();
+            SuccinctBitVector reference = toVector(bits);
+
+            assertEquals(bits.length, built.length());
+            assertEquals(reference.countOnes(), built.countOnes());
+            assertEquals(reference.rankDirectory, built.rankDirectory);
+            assertEquals(reference.select1Samples, built.select1Samples);
+            assertEquals(reference.select0Samples, built.select0Samples);
+            for (int i = 0; i <= bits.length; i++) {
+                assertEquals(reference.rank1(i), built.rank1(i));
+            }
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testBuilderCannotBeReused() {
+        BitVectorBuilder builder = new BitVectorBuilder();
+        builder.append(true).build();
+        builder.append(false);
+    }
+
+    @Test
+    public void testBitsBeyondLengthAreIgnored() {
+        SuccinctBitVector vector = new SuccinctBitVector(new long[]{-1L, -1L}, 70);
+        assertEquals(70, vector.countOnes());
+        assertEquals(70, vector.rank1(70));
+    }
+}
@@ -0,0 +1,528 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.Before;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Тесты для класса TrieLouds
+ */
+public class TrieLoudsTest {
+
+    private static final List<String> WORDS = Arrays.asList(
+            "apple", "app", "application", "banana", "band",
+            "cat", "category", "dog", "domain", "door"
+    );
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private TrieLouds louds;
+
+    @Before
+    public void setUp() {
+        louds = TrieLouds.buildFromWordList(WORDS);
+    }
+
+    /**
+     * Случайный словарь для сравнения с обычным Trie
+     */
+    static List<String> randomWords(int count, int minLength, int maxLength, String alphabet, long seed) {
+        Random random = new Random(seed);
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int length = minLength + random.nextInt(maxLength - minLength + 1);
+            StringBuilder word = new StringBuilder();
+            for (int j = 0; j < length; j++) {
+                word.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            words.add(word.toString());
+        }
+        return words;
+    }
+
+    @Test
+    public void testSearch() {
+        for (String word : WORDS) {
+            assertTrue("Слово '" + word + "' должно находиться", louds.search(word));
+        }
+        assertFalse(louds.search("appl"));
+        assertFalse(louds.search("ban"));
+        assertFalse(louds.search("database"));
+        assertFalse(louds.search("doors"));
+    }
+
+    @Test
+    public void testStartsWith() {
+        assertTrue(louds.startsWith("app"));
+        assertTrue(louds.startsWith("ca"));
+        assertTrue(louds.startsWith("door"));
+        assertTrue(louds.startsWith(""));
+        assertFalse(louds.startsWith("dat"));
+        assertFalse(louds.startsWith("doors"));
+    }
+
+    @Test
+    public void testNodeData() {
+        int a = louds.findChildByChar(0, 'a');
+        assertEquals("a", louds.getNodeData(a));
+        assertFalse(louds.isWordEnd(a));
+        assertEquals("Узлов: корень + 36 символов", 37, louds.getNodeCount());
+    }
+
+    @Test
+    public void testGetAllWordsMatchesTrie() {
+        List<String> words = randomWords(3000, 1, 8, "abcde", 1);
+        TrieLouds randomLouds = TrieLouds.buildFromWordList(words);
+        Trie trie = new Trie();
+        for (String word : words) {
+            trie.insert(word);
+        }
+
+        List<String> expected = trie.getAllWords();
+        Collections.sort(expected);
+        List<String> actual = randomLouds.getAllWords();
+        assertEquals("Слова выдаются в лексикографическом порядке", expected, actual);
+        assertEquals(trie.getNodeCount(), randomLouds.getNodeCount());
+        assertEquals("Повторы не учитываются", expected.size(), trie.getWordCount());
+        for (String word : randomWords(1000, 1, 9, "abcdef", 2)) {
+            assertEquals(word, trie.search(word), randomLouds.search(word));
+            assertEquals(word, trie.startsWith(word), randomLouds.startsWith(word));
+        }
+    }
+
+    @Test
+    public void testWordsWithPrefix() {
+        assertEquals(Arrays.asList("app", "apple", "application"), louds.getWordsWithPrefix("app"));
+        assertEquals(Arrays.asList("dog", "domain", "door"), louds.getWordsWithPrefix("do"));
+        assertEquals(Collections.singletonList("door"), louds.getWordsWithPrefix("door"));
+        assertTrue(louds.getWordsWithPrefix("dat").isEmpty());
+
+        List<String> words = randomWords(3000, 1, 8, "abcde", 13);
+        TrieLouds randomLouds = TrieLouds.buildFromWordList(words);
+        Trie trie = new Trie();
+        for (String word : words) {
+            trie.insert(word);
+        }
+        for (String prefix : Arrays.asList("a", "bd", "cea", "eeee")) {
+            List<String> expected = trie.getWordsWithPrefix(prefix);
+            Collections.sort(expected);
+            assertEquals(prefix, expected, randomLouds.getWordsWithPrefix(prefix));
+        }
+    }
+
+    @Test
+    public void testWordIteratorIsLazy() {
+        Iterator<CharSequence> it = louds.wordIterator("ca");
+        assertEquals("cat", it.next().toString());
+        assertEquals("category", it.next().toString());
+        assertFalse(it.hasNext());
+
+        assertEquals(Arrays.asList("app", "apple"),
+                louds.words("").limit(2).collect(Collectors.toList()));
+        assertEquals(3, louds.words("d").count());
+    }
+
+    @Test
+    public void testParallelWords() {
+        List<String> words = randomWords(20_000, 1, 10, "abcdefgh", 14);
+        TrieLouds randomLouds = TrieLouds.buildFromWordList(words);
+        List<String> expected = randomLouds.getAllWords();
+
+        assertEquals(expected, randomLouds.words("").parallel().collect(Collectors.toList()));
+        assertEquals(expected.size(), randomLouds.words("").parallel().unordered().count());
+        assertEquals(randomLouds.getWordsWithPrefix("ab"), randomLouds.words("ab").parallel().collect(Collectors.toList()));
+        assertEquals(0, randomLouds.words("z").parallel().count());
+    }
+
+    @Test
+    public void testSpliteratorSplitsDownToLeaves() {
+        // Рекурсивно делим до конца и склеиваем части по порядку
+        List<String> collected = new ArrayList<>();
+        splitAndCollect(louds.wordSpliterator(""), collected);
+        assertEquals(louds.getAllWords(), collected);
+    }
+
+    @Test
+    public void testSpliteratorSizeIsExact() {
+        List<String> words = randomWords(5000, 1, 8, "abcde", 25);
+        TrieLouds trie = TrieLouds.buildFromWordList(words);
+        for (String prefix : Arrays.asList("", "a", "cd", "eea", "x")) {
+            Spliterator<String> spliterator = trie.wordSpliterator(prefix);
+            assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED));
+            assertEquals(prefix, trie.getWordsWithPrefix(prefix).size(), spliterator.getExactSizeIfKnown());
+
+            List<String> collected = new ArrayList<>();
+            splitAndCollect(spliterator, collected);
+            assertEquals(trie.getWordsWithPrefix(prefix), collected);
+        }
+    }
+
+    private static void splitAndCollect(Spliterator<String> spliterator, List<String> out) {
+        long size = spliterator.estimateSize();
+        int before = out.size();
+        Spliterator<String> prefix = spliterator.trySplit();
+        if (prefix != null) {
+            splitAndCollect(prefix, out);
+            splitAndCollect(spliterator, out);
+        } else {
+            spliterator.forEachRemaining(out::add);
+        }
+        assertEquals("Размер части совпадает с числом её слов", size, out.size() - before);
+    }
+
+    @Test
+    public void testDeepWordWithoutRecursion() {
+        StringBuilder deep = new StringBuilder();
+        for (int i = 0; i < 200_000; i++) {
+            deep.append((char) ('a' + i % 3));
+        }
+        TrieLouds chain = TrieLouds.buildFromWordList(Arrays.asList(deep.toString(), "b"));
+        assertEquals(Arrays.asList(deep.toString(), "b"), chain.getAllWords());
+    }
+
+    @Test
+    public void testSearchAll() {
+        String[] keys = {"door", "app", "appl", "", "application", "doors", "app", "banana", "ba"};
+        BitSet found = louds.searchAll(keys);
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(keys[i], louds.search(keys[i]), found.get(i));
+        }
+        assertTrue(louds.containsAll("app", "cat", "door"));
+        assertFalse(louds.containsAll("app", "cats"));
+        assertTrue(louds.containsAll());
+
+        List<String> words = randomWords(5000, 1, 9, "abcd", 15);
+        TrieLouds randomLouds = TrieLouds.buildFromWordList(words);
+        String[] queries = randomWords(5000, 0, 10, "abcde", 16).toArray(new String[0]);
+        for (boolean presorted : new boolean[]{false, true}) {
+            if (presorted) {
+                Arrays.sort(queries);
+            }
+            BitSet hits = randomLouds.searchAll(queries);
+            for (int i = 0; i < queries.length; i++) {
+                assertEquals(queries[i], randomLouds.search(queries[i]), hits.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void testMemoryBreakdown() {
+        Map<String, Long> breakdown = louds.memoryBreakdown();
+        assertEquals(Arrays.asList("bits", "rankDirectory", "selectSamples", "labels", "wordEnds", "wordEndsIndex"),
+                new ArrayList<>(breakdown.keySet()));
+        assertEquals("Одно слово long на 75 бит LOUDS", 16L, (long) breakdown.get("bits"));
+        assertEquals(37L * Character.BYTES, (long) breakdown.get("labels"));
+
+        long sum = 0;
+        for (long bytes : breakdown.values()) {
+            sum += bytes;
+        }
+        assertEquals(sum, louds.sizeInBytes());
+        assertEquals(sum * 8.0 / 37, louds.bitsPerNode(), 1e-9);
+        assertEquals(sum * 8.0 / WORDS.size(), louds.bitsPerKey(), 1e-9);
+
+        Trie trie = DemoApplication.generateTestTrie(WORDS);
+        assertEquals("Узлы Trie: объект узла 24 байта", 37L * 24, (long) trie.estimateMemoryBreakdown().get("nodes"));
+        assertTrue(trie.estimateSizeInBytes() > louds.sizeInBytes());
+    }
+
+    @Test
+    public void testWordIds() {
+        List<String> words = randomWords(5000, 1, 10, "abcdefg", 8);
+        TrieLouds randomLouds = TrieLouds.buildFromWordList(words);
+        int wordCount = new HashSet<>(words).size();
+        assertEquals(wordCount, randomLouds.getWordCount());
+
+        boolean[] used = new boolean[wordCount];
+        for (String word : words) {
+            int id = randomLouds.lookupId(word);
+            assertTrue(word, id >= 0 && id < wordCount);
+            assertEquals(word, randomLouds.wordForId(id));
+            used[id] = true;
+        }
+        for (boolean idUsed : used) {
+            assertTrue("Номера плотные", idUsed);
+        }
+        assertEquals(-1, louds.lookupId("appl"));
+        assertEquals(-1, louds.lookupId("doors"));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testWordForIdOutOfRange() {
+        louds.wordForId(WORDS.size());
+    }
+
+    @Test
+    public void testBuildFromSortedWordsLevelOrder() {
+        // Дерево из README: корень с тремя детьми, у второго ребёнка двое детей
+        TrieLouds small = TrieLouds.buildFromSortedWords(Arrays.asList("a", "b", "ba", "bb", "c").iterator());
+        assertEquals("10 1110 0 110 0 0 0", small.getLoudsString());
+        assertEquals(6, small.getNodeCount());
+        assertEquals("b", small.getNodeData(2));
+        assertEquals("a", small.getNodeData(4));
+        assertTrue(small.isWordEnd(2));
+    }
+
+    @Test
+    public void testBuildFromSortedWordsSkipsDuplicates() {
+        TrieLouds withDuplicates = TrieLouds.buildFromSortedWords(
+                Arrays.asList("", "app", "app", "apple", "apple", "bat").iterator());
+        assertEquals(Arrays.asList("app", "apple", "bat"), withDuplicates.getAllWords());
+    }
+
+    @Test
+    public void testFuzzySearchMatchesBruteForce() {
+        List<String> words = randomWords(5000, 1, 9, "abcde", 17);
+        TrieLouds trie = TrieLouds.buildFromWordList(words);
+        List<String> all = trie.getAllWords();
+
+        for (String query : randomWords(200, 0, 9, "abcdef", 18)) {
+            for (int maxEdits = 0; maxEdits <= 2; maxEdits++) {
+                List<String> expected = new ArrayList<>();
+                for (String word : all) {
+                    if (levenshtein(query, word) <= maxEdits) {
+                        expected.add(word);
+                    }
+                }
+                assertEquals(query + "/" + maxEdits, expected, trie.fuzzySearch(query, maxEdits, Integer.MAX_VALUE));
+            }
+        }
+    }
+
+    @Test
+    public void testFuzzySearchLimit() {
+        assertEquals(Arrays.asList("dog", "door"), louds.fuzzySearch("dor", 1, 10));
+        assertEquals(Collections.singletonList("dog"), louds.fuzzySearch("dor", 1, 1));
+        assertTrue(louds.fuzzySearch("dor", 1, 0).isEmpty());
+    }
+
+    @Test
+    public void testWordsMatching() {
+        assertEquals(Arrays.asList("cat", "category"), louds.getWordsMatching("c?t*"));
+        assertEquals(Arrays.asList("dog", "door"), louds.getWordsMatching("do[go]*"));
+        assertEquals(Collections.singletonList("domain"), louds.getWordsMatching("do[!go]*"));
+        assertEquals(Arrays.asList("app", "apple", "application"), louds.getWordsMatching("app*"));
+        assertEquals(Arrays.asList("application", "banana"), louds.getWordsMatching("[a-b]????*[!dy]"));
+        assertEquals(Collections.singletonList("band"), louds.getWordsMatching("band"));
+        assertTrue(louds.getWordsMatching("ban").isEmpty());
+        assertEquals(louds.getAllWords(), louds.getWordsMatching("*"));
+    }
+
+    @Test
+    public void testWordsMatchingAgreesWithRegex() {
+        List<String> words = randomWords(5000, 1, 9, "abcde", 19);
+        TrieLouds trie = TrieLouds.buildFromWordList(words);
+        List<String> all = trie.getAllWords();
+        String[] patterns = {"a*", "*a", "?b*c?", "*ab*", "[a-c]?[!a]*", "a*b*c*", "??", "*[de]d*e", "e*e*e", "[^abc]*"};
+
+        for (String pattern : patterns) {
+            String regex = pattern.replace("?", ".").replace("*", ".*").replace("[!", "[^");
+            List<String> expected = new ArrayList<>();
+            for (String word : all) {
+                if (word.matches(regex)) {
+                    expected.add(word);
+                }
+            }
+            assertEquals(pattern, expected, trie.getWordsMatching(pattern));
+        }
+    }
+
+    @Test
+    public void testMatchIteratorIsLazy() {
+        Iterator<String> it = louds.matchIterator("*a*");
+        assertEquals("app", it.next());
+        assertEquals("apple", it.next());
+        assertTrue(it.hasNext());
+    }
+
+    @Test
+    public void testMatchEscapedWildcards() {
+        TrieLouds trie = TrieLouds.buildFromWordList(Arrays.asList("a*b", "a?b", "axb", "a[b"));
+        assertEquals(Collections.singletonList("a*b"), trie.getWordsMatching("a\\*b"));
+        assertEquals(Collections.singletonList("a?b"), trie.getWordsMatching("a\\?b"));
+        assertEquals(Collections.singletonList("a[b"), trie.getWordsMatching("a\\[b"));
+        assertEquals(4, trie.getWordsMatching("a?b").size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMatchRejectsUnclosedClass() {
+        louds.matchIterator("ab[cd");
+    }
+
+    @Test
+    public void testCeilingAndFloor() {
+        assertEquals("app", louds.ceiling("app"));
+        assertEquals("apple", louds.ceiling("appl"));
+        assertEquals("band", louds.ceiling("banana0"));
+        assertEquals("app", louds.ceiling(""));
+        assertNull(louds.ceiling("dp"));
+
+        assertEquals("app", louds.floor("app"));
+        assertEquals("app", louds.floor("appl"));
+        assertEquals("banana", louds.floor("banb"));
+        assertEquals("application", louds.floor("b"));
+        assertNull(louds.floor("ap"));
+        assertEquals("door", louds.floor("z"));
+    }
+
+    @Test
+    public void testCeilingFloorAndRangeAgreeWithTreeSet() {
+        List<String> words = randomWords(5000, 1, 8, "abcde", 20);
+        TrieLouds trie = TrieLouds.buildFromWordList(words);
+        TreeSet<String> expected = new TreeSet<>(words);
+
+        List<String> keys = randomWords(2000, 0, 9, "abcdef", 21);
+        for (int i = 0; i < keys.size(); i++) {
+            String key = keys.get(i);
+            assertEquals(key, expected.ceiling(key), trie.ceiling(key));
+            assertEquals(key, expected.floor(key), trie.floor(key));
+
+            String to = keys.get((i + 1) % keys.size());
+            if (i % 10 == 0 && key.compareTo(to) <= 0) {
+                List<String> range = new ArrayList<>();
+                trie.range(key, to).forEachRemaining(range::add);
+                assertEquals(key + ".." + to, new ArrayList<>(expected.subSet(key, to)), range);
+            }
+        }
+    }
+
+    @Test
+    public void testRangeBounds() {
+        List<String> all = new ArrayList<>();
+        louds.range(null, null).forEachRemaining(all::add);
+        assertEquals(louds.getAllWords(), all);
+
+        List<String> page = new ArrayList<>();
+        louds.range("b", "d").forEachRemaining(page::add);
+        assertEquals(Arrays.asList("banana", "band", "cat", "category"), page);
+
+        assertFalse(louds.range("e", null).hasNext());
+        assertFalse(louds.range("cat", "cat").hasNext());
+    }
+
+    @Test
+    public void testCountWithPrefix() {
+        assertEquals(WORDS.size(), louds.countWithPrefix(""));
+        assertEquals(3, louds.countWithPrefix("app"));
+        assertEquals(1, louds.countWithPrefix("apple"));
+        assertEquals(3, louds.countWithPrefix("do"));
+        assertEquals(0, louds.countWithPrefix("x"));
+
+        List<String> words = randomWords(10_000, 1, 10, "abcdef", 22);
+        TrieLouds trie = TrieLouds.buildFromWordList(words);
+        for (String prefix : randomWords(300, 0, 4, "abcdefg", 23)) {
+            assertEquals(prefix, trie.getWordsWithPrefix(prefix).size(), trie.countWithPrefix(prefix));
+        }
+    }
+
+    @Test
+    public void testWordsWithPrefixPaging() {
+        assertEquals(Arrays.asList("apple", "application"), louds.getWordsWithPrefix("app", 1, 5));
+        assertEquals(Arrays.asList("cat", "category"), louds.getWordsWithPrefix("", 5, 2));
+        assertTrue(louds.getWordsWithPrefix("app", 3, 5).isEmpty());
+        assertTrue(louds.getWordsWithPrefix("x", 0, 5).isEmpty());
+
+        List<String> words = randomWords(5000, 1, 8, "abcde", 24);
+        TrieLouds trie = TrieLouds.buildFromWordList(words);
+        for (String prefix : Arrays.asList("", "a", "bc", "dde")) {
+            List<String> all = trie.getWordsWithPrefix(prefix);
+            for (int offset = 0; offset <= all.size(); offset += 1 + offset / 3) {
+                List<String> expected = all.subList(offset, Math.min(all.size(), offset + 7));
+                assertEquals(prefix + "@" + offset, expected, trie.getWordsWithPrefix(prefix, offset, 7));
+            }
+        }
+    }
+
+    private static int levenshtein(String a, String b) {
+        int[] row = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            row[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            int diagonal = row[0];
+            row[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int above = row[j];
+                row[j] = Math.min(Math.min(row[j - 1] + 1, above + 1), diagonal + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1));
+                diagonal = above;
+            }
+        }
+        return row[b.length()];
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuildFromSortedWordsRejectsUnsortedInput() {
+        TrieLouds.buildFromSortedWords(Arrays.asList("apple", "app").iterator());
+    }
+
+    @Test
+    public void testSaveAndMap() throws IOException {
+        List<String> words = randomWords(20_000, 1, 12, "abcdefghij", 3);
+        TrieLouds built = TrieLouds.buildFromWordList(words);
+        Path file = folder.newFile("trie.louds").toPath();
+        built.save(file);
+
+        TrieLouds mapped = TrieLouds.map(file);
+        assertEquals(built.getNodeCount(), mapped.getNodeCount());
+        assertEquals(built.getAllWords(), mapped.getAllWords());
+        for (String word : randomWords(2000, 1, 12, "abcdefghijk", 4)) {
+            assertEquals(word, built.search(word), mapped.search(word));
+        }
+        for (int node = 0; node < built.getNodeCount(); node += 97) {
+            assertEquals(built.parent(node), mapped.parent(node));
+            assertEquals(built.firstChild(node), mapped.firstChild(node));
+            assertEquals(built.getNodeData(node), mapped.getNodeData(node));
+        }
+    }
+
+    @Test
+    public void testMapBasicLouds() throws IOException {
+        Path file = folder.newFile("small.louds").toPath();
+        louds.save(file);
+        BasicLouds structure = LoudsFile.map(file);
+        assertTrue("Сохраняется вид структуры", structure instanceof TrieLouds);
+        assertEquals(louds.getLoudsString(), structure.getLoudsString());
+    }
+
+    @Test
+    public void testOffHeapCopy() {
+        List<String> words = randomWords(5000, 1, 10, "abcdefgh", 5);
+        TrieLouds heap = TrieLouds.buildFromWordList(words);
+        TrieLouds offHeap = heap.toOffHeap();
+        try {
+            assertTrue("Символы лежат вне кучи", offHeap.labels.isDirect());
+            assertEquals(heap.getAllWords(), offHeap.getAllWords());
+            for (String word : randomWords(1000, 1, 10, "abcdefghi", 6)) {
+                assertEquals(word, heap.search(word), offHeap.search(word));
+                assertEquals(word, heap.startsWith(word), offHeap.startsWith(word));
+            }
+        } finally {
+            offHeap.close();
+        }
+        offHeap.close(); // Повторное закрытие безопасно
+        assertTrue("Исходное дерево не затронуто", heap.search(words.get(0)));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testClosedMappedTrieCannotBeUsed() throws IOException {
+        Path file = folder.newFile("closed.louds").toPath();
+        TrieLouds.buildFromWordList(randomWords(5000, 1, 10, "abc", 7)).save(file);
+        TrieLouds mapped = TrieLouds.map(file);
+        mapped.close();
+        mapped.search("abc");
+    }
+
+    @Test(expected = IOException.class)
+    public void testMapRejectsForeignFile() throws IOException {
+        Path file = folder.newFile("words.txt").toPath();
+        Files.write(file, WORDS);
+        TrieLouds.map(file);
+    }
+}
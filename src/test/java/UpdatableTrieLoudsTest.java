@@ -0,0 +1,75 @@
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+/**
+ * Тесты для класса UpdatableTrieLouds
+ */
+public class UpdatableTrieLoudsTest {
+
+    @Test
+    public void testInsertAndDelete() {
+        UpdatableTrieLouds dictionary = new UpdatableTrieLouds(
+                TrieLouds.buildFromWordList(Arrays.asList("app", "apple", "cat")), 100);
+
+        assertTrue(dictionary.insert("apply"));
+        assertFalse(dictionary.insert("apple"));
+        assertTrue(dictionary.delete("apple"));
+        assertFalse(dictionary.delete("apple"));
+        assertTrue(dictionary.delete("cat"));
+
+        assertTrue(dictionary.search("apply"));
+        assertFalse(dictionary.search("apple"));
+        assertTrue(dictionary.startsWith("appl"));
+        assertFalse(dictionary.startsWith("ca"));
+        assertEquals(Arrays.asList("app", "apply"), dictionary.getAllWords());
+        assertEquals(2, dictionary.getWordCount());
+        assertEquals(3, dictionary.getDeltaSize());
+
+        assertTrue("Удалённое слово базы возвращается", dictionary.insert("cat"));
+        assertEquals(Arrays.asList("app", "apply", "cat"), dictionary.getAllWords());
+        assertEquals(0, dictionary.getGeneration());
+    }
+
+    @Test
+    public void testMatchesTreeSetAcrossMerges() {
+        List<String> words = TrieLoudsTest.randomWords(2000, 1, 6, "abcd", 17);
+        TreeSet<String> model = new TreeSet<>(words);
+        UpdatableTrieLouds dictionary = new UpdatableTrieLouds(TrieLouds.buildFromWordList(words), 64);
+
+        Random random = new Random(18);
+        List<String> candidates = TrieLoudsTest.randomWords(3000, 1, 6, "abcde", 19);
+        for (int i = 0; i < 5000; i++) {
+            String word = candidates.get(random.nextInt(candidates.size()));
+            if (random.nextBoolean()) {
+                assertEquals(word, model.add(word), dictionary.insert(word));
+            } else {
+                assertEquals(word, model.remove(word), dictionary.delete(word));
+            }
+            assertTrue(dictionary.getDeltaSize() < 64);
+        }
+
+        assertTrue("Были слияния", dictionary.getGeneration() > 0);
+        assertEquals(new ArrayList<>(model), dictionary.getAllWords());
+        assertEquals(model.size(), dictionary.getWordCount());
+        for (String prefix : Arrays.asList("a", "bc", "dde", "e", "abcd")) {
+            List<String> expected = new ArrayList<>();
+            for (String word : model.tailSet(prefix)) {
+                if (!word.startsWith(prefix)) {
+                    break;
+                }
+                expected.add(word);
+            }
+            assertEquals(prefix, expected, dictionary.getWordsWithPrefix(prefix));
+            assertEquals(prefix, !expected.isEmpty(), dictionary.startsWith(prefix));
+        }
+        for (String word : candidates) {
+            assertEquals(word, model.contains(word), dictionary.search(word));
+        }
+
+        dictionary.merge();
+        assertEquals(0, dictionary.getDeltaSize());
+        assertEquals(new ArrayList<>(model), dictionary.getBase().getAllWords());
+    }
+}
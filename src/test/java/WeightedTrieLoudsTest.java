@@ -0,0 +1,112 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Тесты для класса WeightedTrieLouds
+ */
+public class WeightedTrieLoudsTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testTopK() {
+        Map<String, Long> weighted = new HashMap<>();
+        weighted.put("app", 5L);
+        weighted.put("apple", 50L);
+        weighted.put("application", 20L);
+        weighted.put("apply", 30L);
+        weighted.put("banana", 100L);
+        WeightedTrieLouds trie = WeightedTrieLouds.build(weighted);
+
+        assertEquals(Arrays.asList("apple", "apply"), trie.topK("app", 2));
+        assertEquals(Arrays.asList("apple", "apply", "application", "app"), trie.topK("ap", 10));
+        assertEquals(Collections.singletonList("banana"), trie.topK("", 1));
+        assertTrue(trie.topK("c", 3).isEmpty());
+        assertTrue(trie.topK("app", 0).isEmpty());
+        assertEquals(30L, trie.getWeight("apply"));
+        assertEquals(100L, trie.getMaxScore(0));
+    }
+
+    @Test
+    public void testTopKMatchesFullSort() {
+        List<String> words = new ArrayList<>(new HashSet<>(TrieLoudsTest.randomWords(5000, 1, 9, "abcdef", 11)));
+        List<Long> weights = new ArrayList<>();
+        for (long i = 0; i < words.size(); i++) {
+            weights.add(i * 7);
+        }
+        Collections.shuffle(weights, new Random(12));
+        Map<String, Long> weighted = new HashMap<>();
+        for (int i = 0; i < words.size(); i++) {
+            weighted.put(words.get(i), weights.get(i));
+        }
+        WeightedTrieLouds trie = WeightedTrieLouds.build(weighted);
+
+        for (String prefix : Arrays.asList("", "a", "bc", "fed", "abcd", "zz")) {
+            List<String> expected = new ArrayList<>();
+            for (String word : words) {
+                if (word.startsWith(prefix)) {
+                    expected.add(word);
+                }
+            }
+            expected.sort((a, b) -> Long.compare(weighted.get(b), weighted.get(a)));
+            expected = expected.subList(0, Math.min(10, expected.size()));
+            assertEquals(prefix, expected, trie.topK(prefix, 10));
+        }
+    }
+
+    private static WeightedTrieLouds randomWeightedTrie(long seed) {
+        Random random = new Random(seed);
+        Map<String, Long> weighted = new HashMap<>();
+        for (String word : TrieLoudsTest.randomWords(5000, 1, 9, "abcdef", seed)) {
+            weighted.put(word, (long) random.nextInt(1_000_000));
+        }
+        return WeightedTrieLouds.build(weighted);
+    }
+
+    @Test
+    public void testSaveAndMap() throws IOException {
+        WeightedTrieLouds built = randomWeightedTrie(29);
+        Path file = folder.newFile("weighted.louds").toPath();
+        built.save(file);
+
+        WeightedTrieLouds mapped = WeightedTrieLouds.map(file);
+        try {
+            TrieLouds asTrie = TrieLouds.map(file);
+            assertTrue("TrieLouds.map тоже возвращает взвешенное дерево", asTrie instanceof WeightedTrieLouds);
+            asTrie.close();
+            assertEquals(built.getAllWords(), mapped.getAllWords());
+            for (String prefix : Arrays.asList("", "a", "bc", "fed", "zz")) {
+                assertEquals(prefix, built.topK(prefix, 10), mapped.topK(prefix, 10));
+            }
+            for (int node = 0; node < built.getNodeCount(); node += 13) {
+                assertEquals(built.getMaxScore(node), mapped.getMaxScore(node));
+            }
+            String word = built.getAllWords().get(100);
+            assertEquals(built.getWeight(word), mapped.getWeight(word));
+        } finally {
+            mapped.close();
+        }
+    }
+
+    @Test
+    public void testOffHeapCopy() {
+        WeightedTrieLouds heap = randomWeightedTrie(30);
+        WeightedTrieLouds offHeap = heap.toOffHeap();
+        try {
+            assertTrue("Веса лежат вне кучи", offHeap.weights.isDirect());
+            for (String prefix : Arrays.asList("", "a", "bc", "fed")) {
+                assertEquals(prefix, heap.topK(prefix, 10), offHeap.topK(prefix, 10));
+            }
+            assertEquals(heap.memoryBreakdown(), offHeap.memoryBreakdown());
+        } finally {
+            offHeap.close();
+        }
+    }
+}